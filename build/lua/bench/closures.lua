@@ -0,0 +1,11 @@
+-- creates short lived closures, with and without upvalues
+local function apply(f, v)
+	return f(v)
+end
+
+local sum = 0
+for i = 1, 300000 do
+	sum = sum + apply(function(v) return v + 1 end, i)
+	sum = sum + apply(function(v) return v + i end, i)
+end
+assert(sum > 0)
@@ -0,0 +1,20 @@
+-- short-lived coroutines: create, resume through a few yields, finish
+local create, resume, yield = coroutine.create, coroutine.resume, coroutine.yield
+
+local function task(n)
+	for i = 1, n do
+		yield(i)
+	end
+	return n
+end
+
+local sum = 0
+for round = 1, 20000 do
+	local co = create(task)
+	local ok, v = resume(co, 3)
+	while ok and coroutine.status(co) ~= "dead" do
+		sum = sum + v
+		ok, v = resume(co)
+	end
+end
+assert(sum > 0)
@@ -0,0 +1,14 @@
+-- field chains, global calls and method calls, the shapes that run
+-- fused with the instruction before them
+config = {render = {scale = {x = 2}}}
+function tick() return 1 end
+
+local counter = {n = 0}
+function counter:bump() self.n = self.n + 1 end
+
+local sum = 0
+for i = 1, 300000 do
+	sum = sum + config.render.scale.x + tick()
+	counter:bump()
+end
+assert(sum == 900000 and counter.n == 300000)
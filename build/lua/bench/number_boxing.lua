@@ -0,0 +1,19 @@
+-- small integer results from loops, arithmetic, # and the string and math libraries
+local s = string.rep("abcdefghij", 20)
+local t = {}
+for i = 1, 200 do
+	t[i] = i
+end
+local sum = 0
+for round = 1, 200 do
+	for i = 1, #s do
+		local c = string.byte(s, i)
+		sum = sum + (c % 16) + math.floor(c / 3) + math.abs(i - 100)
+	end
+	for i = 1, #t do
+		sum = sum + select("#", i, i) + #t - t[i]
+	end
+	local start, finish = string.find(s, "hij", round % 100 + 1, true)
+	sum = sum + start + finish + tonumber("12")
+end
+assert(sum > 0)
@@ -0,0 +1,19 @@
+-- pairs and ipairs over tables of a few thousand entries
+local arr, rec = {}, {}
+for i = 1, 5000 do
+	arr[i] = i
+	rec["k" .. i] = i
+end
+local sum = 0
+for round = 1, 20 do
+	for i, v in ipairs(arr) do
+		sum = sum + v
+	end
+	for k, v in pairs(rec) do
+		sum = sum + v
+	end
+	for k, v in pairs(arr) do
+		sum = sum + k
+	end
+end
+assert(sum > 0)
@@ -0,0 +1,234 @@
+function assert(c, ...)
+	if c then
+		return c, ...
+	end
+	error(... or "assertion failed!")
+end
+
+local function ipairs_iterator(t, index)
+	local nextIndex = index + 1
+	local nextValue = t[nextIndex]
+	if nextValue ~= nil then
+		return nextIndex, nextValue
+	end
+end
+
+local ipairs_raw = _ipairs0
+_ipairs0 = nil
+
+function ipairs(t)
+	if type(t) == "table" and getmetatable(t) == nil then
+		return ipairs_raw, t, 0 -- no __index to honor
+	end
+	return ipairs_iterator, t, 0
+end
+
+function pairs(t)
+	return next, t, nil
+end
+
+do
+	local tsort = table._sort0
+	table._sort0 = nil
+
+	local function lessthan(a, b)
+		return a < b
+	end
+
+	function table.sort(tbl, comp) -- merge sort, see TableLib._SORT0
+		local sorter = tsort(tbl, comp)
+		if sorter then
+			comp = comp or lessthan
+			local done, a, b = sorter()
+			while not done do
+				done, a, b = sorter(comp(a, b))
+			end
+		end
+	end
+end
+
+function string.len(s)
+	return #s
+end
+
+local tableconcat = table.concat
+
+function string.rep(s, n)
+	local t = {}
+	for i = 1, n do
+		t[i] = s
+	end
+	return tableconcat(t)
+end
+
+
+package = {}
+package.loaded = {
+	string = string,
+	table = table,
+	math = math,
+	package = package,
+	math = math,
+	coroutine = coroutine
+}
+package.loaders = {}
+package.path = "/"
+
+function require(modname)
+	local m = package.loaded[modname]
+	if m ~= nil then
+		return m
+	end
+	
+	local loaders = package.loaders
+	local errormessage = ""
+	for i = 1, #loaders do
+		local loader = loaders[i]
+		local loader2 = loader(modname)
+		if type(loader2) == "function" then
+			m = loader2(modname)
+			if m == nil then
+				m = true
+			end
+			package.loaded[modname] = m
+			return m
+		elseif type(loader2) == "string" then
+			errormessage = errormessage .. loader2
+		end
+	end
+	error("Module '" .. modname .. "' not found:\n" .. errormessage)
+end
+
+function package.seeall(module)
+	local mt = getmetatable(module) or {}
+	mt.__index = getfenv(0)
+	setmetatable(module, mt)
+end
+
+local function apply(obj, n, f, ...)
+	if n > 0 then
+		f(obj)
+		return apply(obj, n - 1, ...)
+	end	
+end
+
+function module(name, ...)
+	local env = getfenv(0)
+	local t = package.loaded[name] or env[name]
+	if not t then
+		t = {}
+		package.loaded[name] = t
+	end
+	t._NAME = name
+	t._M = t
+
+	local packagename, lastname = name:match("^(.*%.)([^.]*)$")
+	t._PACKAGE = packagename
+	if name:find(".", 1, true) then
+		local chain = env
+		for partial in name:gmatch("([^%.]*)%.") do
+			chain[partial] = chain[partial] or {}
+			chain = chain[partial]
+		end
+		chain[lastname] = t
+	else
+		env[name] = t
+	end
+	apply(t, select("#", ...), ...)
+	setfenv(2, t)
+end
+
+
+do
+	local properties = {}
+	setmetatable(properties, {__mode = "k"})
+
+	function withproperties(obj)
+		local old = getmetatable(obj)
+		local oldindex = old and old.__index
+		local oldisfun = type(oldindex) == "function"
+		local function index(t, k)
+			local p = properties[t]
+			if p then
+				local value = p[k]
+				if value then
+					return value
+				end
+			end
+			if oldindex then
+				if oldisfun then
+					return oldindex(t, k)
+				end
+				return oldindex[k]
+			end
+		end
+		local function newindex(t, k, v)
+			local p = properties[t]
+			if not p then
+				p = {}
+				properties[t] = p
+			end
+			p[k] = v
+		end
+		setmetatable(obj, {__index = index, __newindex = newindex})
+		return obj
+	end
+end
+
+local pselect = select
+local pconcat = table.concat
+local pprint = _print0
+_print0 = nil
+function print(...)
+	local out = {...}
+	local count = pselect("#", ...)
+	for i = 1, count do
+		out[i] = tostring(out[i])
+	end
+	pprint(pconcat(out, "\t", 1, count))
+end
+
+local stostring = _tostring0
+_tostring0 = nil
+function tostring(o)
+	local needs_call, data = stostring(o)
+	if needs_call then
+		return data(o)
+	else
+		return data
+	end
+end
+
+local ggsub = string._gsub0
+string._gsub0 = nil
+function string.gsub(s, pattern, repl, n)
+	local gtarget = ggsub(s, pattern, repl, n)
+	while true do
+		local succ, out, n = gtarget()
+		if succ then
+			return out, n
+		else
+			assert(out)
+			gtarget(repl(out) or out)
+		end
+	end
+end
+
+function table.maxn(t)
+    local max = 0
+    for k, v in pairs(t) do
+        if type(k) == "number" and k > max then
+            max = k
+        end
+    end
+    return max
+end
+
+local function pcall_inner(f, ...)
+    return true, f(...)
+end
+function pcall(...) -- this layer is here so that the exception handler always returns to a lua function.
+    return pcall_inner(...)
+end
+_pcallinit0(pcall_inner, pcall) -- makes pcall_inner catch exceptions and strips the tail call instruction from both
+_pcallinit0 = nil
@@ -0,0 +1,36 @@
+testCall(function() assert("a" ~= nil) end)
+testCall(function() assert("a" ~= 1) end)
+
+metaA = {}
+function metaA.__eq(a,b)
+	return a == b
+end
+
+metaB = {}
+function metaB.__eq(a,b)
+	return true
+end
+
+metaD = {}
+function metaD.__eq(a,b)
+	return false
+end
+
+ta = setmetatable({}, metaA)
+tb = setmetatable({}, metaB)
+tc = setmetatable({}, metaB)
+td = setmetatable({}, metaD)
+
+testAssert(ta ~= tb, "same metatable for __eq")
+testAssert(tb == tc, "different metatables for __eq")
+testAssert(td == td, "not using metatable")
+
+
+do
+	local nan = 0/0
+	testAssert(not rawequal(nan, nan), "NaN rawequal to itself")
+	testAssert(nan ~= nan, "NaN equal to itself")
+	testAssert(not (nan == nan), "NaN equal to itself")
+	local s1, s2 = "ab", "a" .. ("b"):rep(1)
+	testAssert(rawequal(s1, s2))
+end
@@ -0,0 +1,51 @@
+function a(x,y,z)
+   return x, y, z
+end
+
+local x,y,z = a(5,7,9)
+testAssert(x == 5)
+testAssert(y == 7)
+testAssert(z == 9)
+
+x, y = a(6,8,10)
+testAssert(x == 6)
+testAssert(y == 8)
+testAssert(z == 9)
+
+local z2 = 0
+x,y,z,z2 = a(10, 20, 30)
+testAssert(x == 10)
+testAssert(y == 20)
+testAssert(z == 30)
+testAssert(z2 == nil)
+
+
+do
+	local function make(n)
+		return function(v) return v * 2 end, function(v) return v + n end
+	end
+	local d1, a1 = make(1)
+	local d2, a2 = make(2)
+	testAssert(d1(4) == 8 and d2(4) == 8)
+	testAssert(d1 ~= d2)
+	testAssert(a1(4) == 5 and a2(4) == 6)
+	testAssert(a1 ~= a2)
+
+	-- each evaluation of a function expression is a closure of its own
+	local fs = {}
+	for i = 1, 2 do
+		fs[i] = function() return marker end
+	end
+	setfenv(fs[1], {marker = "sandbox"})
+	testAssert(fs[1]() == "sandbox")
+	testAssert(fs[2]() == nil)
+	testAssert(fs[1] ~= fs[2])
+
+	local function getter() return function() return marker end end
+	local g1 = getter()
+	setfenv(g1, {marker = "env"})
+	local g2 = getter()
+	testAssert(g1() == "env")
+	testAssert(g2() == nil)
+	testAssert(g1 ~= g2)
+end
@@ -0,0 +1,29 @@
+t1 = {}
+t2 = {}
+setmetatable(t1, {__index = t2})
+setmetatable(t2, {__index = function() return "the value" end})
+testAssert(t1.key == t2.key)
+testAssert(t1.key == "the value")
+
+
+do
+	-- chains of lookups and calls, with metamethods in the middle of them
+	local calls = 0
+	local deep = setmetatable({}, {__index = function(t, k)
+		return {inner = {name = k}, run = function() calls = calls + 1 return k end}
+	end})
+	testAssert(deep.first.inner.name == "first")
+	testAssert(deep.second.run() == "second")
+	local obj = {count = 0}
+	function obj:bump() self.count = self.count + 1 return self.count end
+	local proxy = setmetatable({}, {__index = obj})
+	testAssert(proxy:bump() == 1)
+	testAssert(proxy:bump() == 2 and obj.count == 0 and proxy.count == 2)
+	fusedGlobal = function() return "global" end
+	testAssert(fusedGlobal() == "global")
+	local ok = pcall(function() return deep.third.missing.name end)
+	testAssert(not ok)
+	fusedGlobal = nil
+	testAssert(not pcall(function() return fusedGlobal() end))
+	testAssert(calls == 1)
+end
@@ -0,0 +1,51 @@
+-- the argument accessors and function interfaces for Java functions, through fixtures
+
+testAssert(fixtures.checkdouble(1.5) == 1.5)
+testAssert(fixtures.checkdouble("2.5") == 2.5)
+testAssert(fixtures.checkint(3.75) == 3)
+testAssert(fixtures.checkint("-4") == -4)
+testAssert(fixtures.checkstring("text") == "text")
+testAssert(fixtures.checkstring(12) == "12")
+
+local function errorOf(f, ...)
+	local ok, err = pcall(f, ...)
+	testAssert(not ok)
+	return err
+end
+
+local err = errorOf(fixtures.checkdouble)
+testAssert(err:find("bad argument #1 to 'checkdouble' (number expected, got no value)", 1, true), err)
+err = errorOf(fixtures.checkdouble, nil)
+testAssert(err:find("(number expected, got nil)", 1, true), err)
+err = errorOf(fixtures.checkdouble, "abc")
+testAssert(err:find("(number expected, got string)", 1, true), err)
+err = errorOf(fixtures.checkstring, {})
+testAssert(err:find("bad argument #1 to 'checkstring' (string expected, got table)", 1, true), err)
+err = errorOf(fixtures.checkint, true)
+testAssert(err:find("'checkint' (number expected, got boolean)", 1, true), err)
+
+testAssert(fixtures.optint() == 7)
+testAssert(fixtures.optint(nil) == 7)
+testAssert(fixtures.optint(2.9) == 2)
+testAssert(fixtures.optint("5") == 5)
+testAssert(fixtures.optdouble() == 0.5)
+testAssert(fixtures.optdouble(nil) == 0.5)
+testAssert(fixtures.optdouble(0.25) == 0.25)
+err = errorOf(fixtures.optint, "x")
+testAssert(err:find("bad argument #1 to 'optint' (number expected, got string)", 1, true), err)
+
+testAssert(select("#", fixtures.dropfirst()) == 0)
+testAssert(select("#", fixtures.dropfirst(1)) == 0)
+local a, b, c, d = fixtures.dropfirst(1, "two", nil, 4)
+testAssert(a == "two" and b == nil and c == 4 and d == nil)
+testAssert(select("#", fixtures.dropfirst(1, "two", nil, 4)) == 3)
+
+testAssert(fixtures.typeof(1) == "Double")
+testAssert(fixtures.typeof() == "nil")
+testAssert(fixtures.typeof("s", "ignored") == "String")
+testAssert(select("#", fixtures.typeof()) == 1)
+testAssert(fixtures.pair(1, "b") == "1.0,b")
+testAssert(fixtures.pair("a") == "a,null")
+testAssert(fixtures.pair("a", "b", "c") == "a,b")
+local t = {fixtures.typeof(true), fixtures.pair("x", "y")}
+testAssert(t[1] == "Boolean" and t[2] == "x,y")
@@ -0,0 +1,4 @@
+for i = 1, 0 do
+end
+testAssert(true)
+
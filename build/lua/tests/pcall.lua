@@ -0,0 +1,28 @@
+testCall(function()
+	local status, a, b, c, d = pcall(function(x, y, z) return x*y*z, x + y, z end, 5, 6, 7)
+	assert(status == true)
+	assert(a == 5 * 6 * 7)
+	assert(b == 5 + 6)
+	assert(c == 7)
+	assert(d == nil)
+end)
+
+testCall(function()
+	local status, a, b, c, d = pcall(function(x, y, z) return x*y*z, x + y, z end, 5, nil, 7)
+	assert(status == false)
+	assert(type(a) == "string")
+	assert(type(b) == "string")
+	assert(type(c) == "userdata")
+end)
+
+
+do
+	-- an error half way through a concatenation must not leak into the next call
+	local function bad(x) return x .. "b" .. {} .. "c" end
+	local function good(x) return x .. "y" .. "z" end
+	for i = 1, 3 do
+		testAssert(not pcall(bad, "a"))
+		local ok, s = pcall(good, "x")
+		testAssert(ok and s == "xyz")
+	end
+end
@@ -0,0 +1,60 @@
+testCall(function()
+	t = {2, 4, 6, 8, 10}
+	for i = 1, 5 do
+	   assert(t[i] == i * 2, "t[" .. i .. "] = " .. t[i])
+	end
+end)
+
+t = {
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0,
+1,2,3,4,5,6,7,8,9,0
+}
+
+
+testCall(function()
+	for i = 1, #t do
+	   assert(i == i)
+
+	   local c1 = t[i]
+	   local c2 = i % 10
+	   local b = c1 == c2
+	   assert(b, "t[" .. i .. "] = " .. t[i])
+	end
+end)
+
+
+testCall(function()
+	local function three() return 7, 8, 9 end
+	local t = {1, 2, x = "x", y = "y", 3, nil, 5, three()}
+	assert(t.x == "x" and t.y == "y")
+	assert(t[1] == 1 and t[3] == 3 and t[4] == nil and t[5] == 5)
+	assert(t[6] == 7 and t[8] == 9 and t[9] == nil)
+	t[100] = 100
+	assert(t[100] == 100 and t[2] == 2)
+end)
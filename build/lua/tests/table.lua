@@ -0,0 +1,321 @@
+local t = {}
+
+for i = 1, 100 do
+   t[i] = i * 3
+end
+
+testAssert(next(t), "next must not be nil")
+
+do
+   local c = 0
+   local s = ""
+   for k, v in pairs(t) do
+   	s = s .. ", " .. k .. "=" .. v
+      c = c + 1
+   end
+   testAssert(c == 100, "wrong number of elements in table: was " .. c .. s)
+end
+
+testCall(function()
+	for k, v in pairs(t) do
+	   assert(t[k] == v)
+	   assert(t[k] == 3 * k)
+	end
+end)
+
+local a, b = -1, 0
+t[a * b] = -1
+t[b] = 1
+
+testAssert(t[a * b] == 1)
+
+
+rawset(t, "hello", "world")
+testAssert(rawget(t, "hello") == "world")
+setmetatable(t, {__index = function() return nil end, __newindex = function() end})
+testAssert(rawget(t, "hello") == "world")
+rawset(t, "hello", "WORLD")
+testAssert(rawget(t, "hello") == "WORLD")
+
+
+do
+	local t = {}
+	testCall(function()
+		for i = 1, 6 do
+			for j = 1, 2^i do
+				t[i] = i^2
+			end
+			for k, v in next, t do
+				assert(k^2 == v)
+				t[k] = nil
+			end
+		end
+	end)
+end
+
+function endswith(s1, s2)
+	return s1:sub(-#s2, -1) == s2
+end
+
+
+local status, errmsg = pcall(function() local t = {} t[0/0] = 1 end)
+testAssert(status == false)
+testAssert(endswith(errmsg, "table index is NaN"))
+
+local status, errmsg = pcall(function() local t = {} t[nil] = 1 end)
+testAssert(status == false, "status was " .. tostring(status))
+testAssert(endswith(errmsg, "table index is nil"))
+
+local status, errmsg = pcall(function() local t = {} next(t, "bad key") end)
+testAssert(not status)
+testAssert(endswith(errmsg, "invalid key to 'next'"))
+
+do
+	t = {1, 2, 3, 4, 5, 6, 7}
+	testAssert(#t == 7)
+	
+	t = {math.cos(1)}
+	testAssert(#t == 1)
+	
+	function f() return 1 end
+	t = {f()}
+	testAssert(#t == 1)
+	
+	function f() return 1, 2, 3, 4, 5 end
+	t = {f()}
+	testAssert(#t == 5)
+
+	t = {1, 2, 3, f()}
+	testAssert(#t == 8)
+
+	t = {f(), 1, 2, 3}
+	testAssert(#t == 4)
+
+	t = {f(), nil}
+	testAssert(#t == 1)
+end
+
+do
+    if tableconcat==nil then
+        tableconcat = table.concat
+    end
+	local t = {"Hello", "World"}
+	testAssert(tableconcat(t) == "HelloWorld")
+
+	t = {"Hello", "World"}
+	testAssert(tableconcat(t, " ") == "Hello World")
+	
+	t = {"Hello", "World"}
+	testAssert(tableconcat(t, 1.5) == "Hello1.5World")
+
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ") == "a b c")
+	
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ", 1, 3) == "a b c")
+	
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ", 2, 3) == "b c")
+	
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ", 1, 2) == "a b")
+	
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ", 1, 1) == "a")
+	
+	t = {"a", "b", "c"}
+	testAssert(tableconcat(t, " ", 100, 99) == "")	
+end
+
+do
+	local function sortAndVerify(t)
+		testCall(function()
+			local len = #t
+			table.sort(t)
+			assert(len == #t)
+			if len > 1 then
+				local prev = t[1]
+				for i = 2, #t do
+					local cur = t[i]
+					assert(not (cur < prev))
+					prev = cur
+				end
+			end
+		end)
+	end
+	sortAndVerify{1000, 55, [0] = 0}
+	sortAndVerify{1000, 55, 10}
+	sortAndVerify{1000}
+	sortAndVerify{1000, 100, 2000, 200}
+	sortAndVerify{1000, 100, 2000, 200, 150}
+	sortAndVerify{1, 2, 3, 4, 5, 6}
+	sortAndVerify{6, 5, 4, 3, 2, 1}
+	sortAndVerify{"b", "c", "a", "ab"}
+
+	local big = {}
+	for i = 1, 1000 do
+		big[i] = i
+	end
+	sortAndVerify(big)
+
+	local desc = {3, 1, 4, 1, 5, 9, 2, 6}
+	table.sort(desc, function(a, b) return a > b end)
+	testAssert(table.concat(desc, ",") == "9,6,5,4,3,2,1,1")
+
+	for i = 1, 1000 do
+		big[i] = 1001 - i
+	end
+	table.sort(big, function(a, b) return a < b end)
+	local ordered = true
+	for i = 1, 1000 do
+		ordered = ordered and big[i] == i
+	end
+	testAssert(ordered)
+
+	local mt = {__lt = function(a, b) return a.v < b.v end}
+	local objs = {}
+	for i, v in ipairs{5, 3, 8, 1} do
+		objs[i] = setmetatable({v = v}, mt)
+	end
+	table.sort(objs)
+	testAssert(objs[1].v == 1 and objs[2].v == 3 and objs[3].v == 5 and objs[4].v == 8)
+
+	testAssert(not pcall(table.sort, {1, "x", 2}))
+
+	-- NaN is unordered, so this must not take the Arrays.sort path, but the values must survive
+	local nan = {3, 0/0, 1, 2}
+	for i = 5, 40 do
+		nan[i] = 45 - i
+	end
+	testCall(function() table.sort(nan) end)
+	local nans, sum = 0, 0
+	for i = 1, 40 do
+		local v = nan[i]
+		if v ~= v then
+			nans = nans + 1
+		else
+			sum = sum + v
+		end
+	end
+	testAssert(#nan == 40 and nans == 1 and sum == 6 + (5 + 40) * 36 / 2)
+end
+
+do
+	local t = {}
+	table.insert(t, 1)
+	testAssert(t[1] == 1)
+	testAssert(t[2] == nil)
+
+	table.insert(t, 1, 2)
+	testAssert(t[1] == 2)
+	testAssert(t[2] == 1)
+	testAssert(t[3] == nil)
+
+	table.insert(t, 2, 3)
+	testAssert(t[1] == 2)
+	testAssert(t[2] == 3)
+	testAssert(t[3] == 1)
+	testAssert(t[4] == nil)
+
+	local v = table.remove(t, 1)
+	testAssert(t[1] == 3, "t[1] is "..tostring(t[1])..", expected is 3")
+	testAssert(t[2] == 1, "t[2] is "..tostring(t[2])..", expected is 1")
+	testAssert(t[3] == nil, "t[3] is "..tostring(t[3])..", expected is nil")
+	testAssert(v == 2, "returned value is "..tostring(v)..", expected is 2")
+
+	testAssert(table.remove(t) == 1)
+	testAssert(#t == 1)
+	testAssert(table.remove({}) == nil)
+	testAssert(select("#", table.remove({})) == 0)
+
+	table.insert(t, 2, "end")
+	testAssert(t[2] == "end" and #t == 2)
+	testAssert(not pcall(table.insert, t, 1, 2, 3))
+
+	local function insertError(...)
+		local ok, err = pcall(table.insert, ...)
+		testAssert(not ok)
+		return err
+	end
+	testAssert(endswith(insertError(t, 4, "gap"), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError(t, 0, "x"), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError({1, 2, 3}, -2^31, 9), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError({1, 2, 3}, 2^40, 9), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(#t == 2 and t[3] == nil)
+	testAssert(endswith(insertError(nil, 1), "bad argument #1 to 'insert' (table expected, got nil)"))
+	testAssert(endswith(select(2, pcall(table.remove, "x")), "bad argument #1 to 'remove' (table expected, got string)"))
+	testAssert(endswith(select(2, pcall(table.sort, 5)), "bad argument #1 to 'sort' (table expected, got number)"))
+end
+
+do
+    testAssert(table.maxn({}) == 0)
+    testAssert(table.maxn({"test"}) == 1)
+    testAssert(table.maxn({nil}) == 0)
+    testAssert(table.maxn({false}) == 1)
+    testAssert(table.maxn({true}) == 1)
+    testAssert(table.maxn({nil, {}}) == 2)
+    testAssert(table.maxn({nil, {}, nil}) == 2)
+    testAssert(table.maxn({nil, {}, false}) == 3)
+    testAssert(table.maxn({nil, {}, true}) == 3)
+    testAssert(table.maxn({1, 2, "ha", 4.5, -167, 0, 0, 0}) == 8)
+    testAssert(table.maxn({1, nil, "ha", 4.5, -167, 0, 0, 0}) == 8)
+    testAssert(table.maxn({1, 3, "ha", 4.5, -167, 0, 0, 0, nil}) == 8)
+    testAssert(table.maxn({1, nil, "ha", 4.5, -167, 0, 0, 0, nil}) == 8)
+    testAssert(table.maxn({1, nil, nil, nil, nil, nil, nil, nil, nil, 2}) == 10)
+    testAssert(table.maxn({1, 3, "ha", 4.5, -167, 0, 0, 0, nil, [17]=true}) == 17)
+    testAssert(table.maxn({1, 3, "ha", 4.5, -167, 0, 0, 0, nil, [17.6]=true}) == 17.6)
+    testAssert(table.maxn({[14.764]=true}) == 14.764)
+    testAssert(table.maxn({[-1]=true}) == 0)
+    testAssert(table.maxn({[1]=true}) == 1)
+    testAssert(table.maxn({[true]=true}) == 0)
+    testAssert(table.maxn({1, 2, 3, [{}]=8}) == 3)
+    testAssert(table.maxn({[13.2]={}, [14.9]={}}) == 14.9)
+end
+
+do -- integral keys that differ only in their high bits
+    local t = {}
+    for i = 1, 200 do
+        t[i * 65536] = i
+        t[-i * 65536] = -i
+    end
+    local sum = 0
+    for i = 1, 200 do
+        testAssert(t[i * 65536] == i and t[-i * 65536] == -i)
+        t[-i * 65536] = nil
+    end
+    for k, v in pairs(t) do
+        sum = sum + v
+    end
+    testAssert(sum == 200 * 201 / 2)
+end
+
+do -- traversal
+    local t = {}
+    for i = 1, 100 do
+        t[i] = i
+        t["s" .. i] = i
+    end
+    local count, sum = 0, 0
+    for k, v in pairs(t) do
+        count = count + 1
+        sum = sum + v
+        t[k] = nil -- clearing fields during traversal is allowed
+    end
+    testAssert(count == 200 and sum == 2 * 5050)
+    testAssert(next(t) == nil)
+
+    local seen = 0
+    for i, v in ipairs({10, 20, 30, nil, 50}) do
+        testAssert(v == i * 10)
+        seen = seen + 1
+    end
+    testAssert(seen == 3)
+
+    local proxy = setmetatable({1}, {__index = function(_, i) if i <= 3 then return i end end})
+    seen = 0
+    for i, v in ipairs(proxy) do
+        seen = seen + v
+    end
+    testAssert(seen == 6)
+    testAssert(not pcall(next, {}, "missing"))
+end
@@ -0,0 +1,93 @@
+testCall(function()
+	local myfunction
+	local f = function()
+		local upvalue = 123
+		myfunction = function()
+			assert(upvalue == 123)
+			return upvalue
+		end
+		error"an error"
+	end
+	local status, errmsg = pcall(f)
+	assert(status == false)
+	assert(errmsg:find("an error"))
+	assert(myfunction() == 123)
+end)
+
+do
+   do
+      local s = 1
+      function f()
+	 return s
+      end
+      
+      function g(x)
+	 s = x
+      end
+   end
+
+   testAssert(f() == 1)   
+   g(10)
+   testAssert(f() == 10)
+end
+
+do
+   local s = 1
+   function f()
+      return s
+   end
+   
+   function g(x)
+      s = x
+   end
+   
+   testAssert(f() == 1)   
+   g(10)
+   testAssert(f() == 10)
+end
+
+do
+   local s = 1
+   function f()
+      return function()
+		return s
+	     end
+   end
+   
+   function g(x)
+      local function g2()
+	 s = x
+      end
+      return g2
+   end
+
+   local v = f()()
+   testAssert(v == 1)
+   local g2 = g(10)
+   g2()
+   v = f()()
+   testAssert(v == 10)
+end
+
+
+do
+	-- captures out of stack order share one upvalue per local until it is closed
+	local a, b, c, d = 1, 2, 3, 4
+	local getc = function() return c end
+	local geta = function() return a end
+	local setc = function(v) c = v end
+	local getd = function() return d end
+	local seta = function(v) a = v end
+	local getb = function() return b end
+	setc(30)
+	seta(10)
+	testAssert(getc() == 30 and c == 30 and geta() == 10 and a == 10)
+	testAssert(getb() == 2 and getd() == 4)
+	local fs = {}
+	for i = 1, 5 do
+		local x = i
+		fs[i] = function() x = x + b return x end
+	end
+	b = 100
+	testAssert(fs[1]() == 101 and fs[5]() == 105 and fs[5]() == 205)
+end
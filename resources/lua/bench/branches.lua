@@ -0,0 +1,20 @@
+-- comparisons and tests, each of which the compiler pairs with a JMP
+local count = 0
+for round = 1, 20 do
+	for i = 1, 10000 do
+		if i % 3 == 0 then
+			count = count + 1
+		elseif i < 5000 and i ~= 17 then
+			count = count + 2
+		end
+		local flag = i > 2500 or nil
+		if not flag then
+			count = count - 1
+		end
+	end
+	local n = 1000
+	while n > 0 do
+		n = n - 1
+	end
+end
+assert(count > 0)
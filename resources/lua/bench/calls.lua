@@ -0,0 +1,30 @@
+-- recursive Lua-to-Lua calls: fib and a walk over a binary tree
+local function fib(n)
+	if n < 2 then
+		return n
+	end
+	return fib(n - 1) + fib(n - 2)
+end
+
+local function build(depth)
+	if depth == 0 then
+		return {value = 1}
+	end
+	return {left = build(depth - 1), right = build(depth - 1), value = depth}
+end
+
+local function walk(node)
+	local sum = node.value
+	if node.left then
+		sum = sum + walk(node.left) + walk(node.right)
+	end
+	return sum
+end
+
+assert(fib(22) == 17711)
+local tree = build(12)
+local total = 0
+for i = 1, 10 do
+	total = total + walk(tree)
+end
+assert(total > 0)
@@ -0,0 +1,25 @@
+-- a generator passing values back and forth through resume and yield
+local yield = coroutine.yield
+
+local counter = coroutine.wrap(function(step)
+	local n = 0
+	while true do
+		n = n + step
+		step = yield(n) or step
+	end
+end)
+
+local co = coroutine.create(function(x)
+	while true do
+		x = yield(x + 1)
+	end
+end)
+local resume = coroutine.resume
+
+local sum = 0
+for i = 1, 100000 do
+	sum = sum + counter(1)
+	local ok, v = resume(co, i)
+	sum = sum + v
+end
+assert(sum > 0)
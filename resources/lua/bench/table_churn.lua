@@ -0,0 +1,23 @@
+-- tables that are created, grown, emptied and refilled all the time
+local live = {}
+for round = 1, 20 do
+	for i = 1, 1000 do
+		live["key" .. i] = {i, i + 1, name = "item", round = round}
+	end
+	for i = 1, 1000, 2 do
+		live["key" .. i] = nil
+	end
+	for k, v in pairs(live) do
+		v.round = nil
+	end
+end
+local queue = {}
+local first, last = 1, 0
+for i = 1, 50000 do
+	last = last + 1
+	queue[last] = i
+	if i % 3 == 0 then
+		queue[first] = nil
+		first = first + 1
+	end
+end
@@ -0,0 +1,23 @@
+-- reads from tables that never change: array-like, string keyed and mixed
+local n = 2000
+local arr, rec = {}, {}
+for i = 1, n do
+	arr[i] = i
+	rec["k" .. i] = i
+end
+local names = {}
+for i = 1, n do
+	names[i] = "k" .. i
+end
+
+local sum = 0
+for round = 1, 40 do
+	for i = 1, n do
+		sum = sum + arr[i] + rec[names[i]]
+	end
+end
+local point = {x = 1, y = 2, z = 3}
+for i = 1, 50000 do
+	sum = sum + point.x + point.y + point.z
+end
+assert(sum > 0)
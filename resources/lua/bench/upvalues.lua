@@ -0,0 +1,16 @@
+-- closures over many locals that are open at the same time
+local n = 120
+local src = {}
+for i = 1, n do
+	src[#src + 1] = "local v" .. i .. " = " .. i
+end
+src[#src + 1] = "local sum = 0"
+src[#src + 1] = "for round = 1, 300 do"
+for i = 1, n, 3 do
+	src[#src + 1] = "\tlocal f" .. i .. " = function() return v" .. i .. " + v" .. (n + 1 - i) .. " end"
+	src[#src + 1] = "\tsum = sum + f" .. i .. "()"
+end
+src[#src + 1] = "end"
+src[#src + 1] = "return sum"
+local f = assert(loadstring(table.concat(src, "\n")))
+assert(f() > 0)
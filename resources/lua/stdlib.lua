@@ -13,7 +13,13 @@ local function ipairs_iterator(t, index)
 	end
 end
 
+local ipairs_raw = _ipairs0
+_ipairs0 = nil
+
 function ipairs(t)
+	if type(t) == "table" and getmetatable(t) == nil then
+		return ipairs_raw, t, 0 -- no __index to honor
+	end
 	return ipairs_iterator, t, 0
 end
 
@@ -22,59 +28,22 @@ function pairs(t)
 end
 
 do
-	local function partition_nocomp(tbl, left, right, pivot)
-		local pval = tbl[pivot]
-		tbl[pivot], tbl[right] = tbl[right], pval
-		local store = left
-		for v = left, right - 1, 1 do
-			local vval = tbl[v]
-			if vval < pval then
-				tbl[v], tbl[store] = tbl[store], vval
-				store = store + 1
-			end
-		end
-		tbl[store], tbl[right] = tbl[right], tbl[store]
-		return store
-	end
-	local function quicksort_nocomp(tbl, left, right)
-		if right > left then
-			local pivot = left
-			local newpivot = partition_nocomp(tbl,left,right,pivot)
-			quicksort_nocomp(tbl,left,newpivot-1)
-			return quicksort_nocomp(tbl,newpivot+1,right)
-		end
-		return tbl
+	local tsort = table._sort0
+	table._sort0 = nil
+
+	local function lessthan(a, b)
+		return a < b
 	end
 
-	local function partition_comp(tbl, left, right, pivot, comp)
-		local pval = tbl[pivot]
-		tbl[pivot], tbl[right] = tbl[right], pval
-		local store = left
-		for v = left, right - 1, 1 do
-			local vval = tbl[v]
-			if comp(vval, pval) then
-				tbl[v], tbl[store] = tbl[store], vval
-				store = store + 1
+	function table.sort(tbl, comp) -- merge sort, see TableLib._SORT0
+		local sorter = tsort(tbl, comp)
+		if sorter then
+			comp = comp or lessthan
+			local done, a, b = sorter()
+			while not done do
+				done, a, b = sorter(comp(a, b))
 			end
 		end
-		tbl[store], tbl[right] = tbl[right], tbl[store]
-		return store
-	end
-	local function quicksort_comp(tbl, left, right, comp)
-		if right > left then
-			local pivot = left
-			local newpivot = partition_comp(tbl,left,right,pivot, comp)
-			quicksort_comp(tbl,left,newpivot-1, comp)
-			return quicksort_comp(tbl,newpivot+1,right, comp)
-		end
-		return tbl
-	end
-
-	function table.sort(tbl, comp) -- quicksort
-	    if comp then
-		    return quicksort_comp(tbl,1, #tbl, comp)
-	    end
-    	return quicksort_nocomp(tbl, 1, #tbl)
 	end
 end
 
@@ -92,64 +61,6 @@ function string.rep(s, n)
 	return tableconcat(t)
 end
 
-function string.gmatch(str, pattern)
-	local init = 1
-	local function gmatch_it()
-		if init <= str:len() then 
-			local s, e = str:find(pattern, init)
-			if s then
-				local oldInit = init
-				init = e+1
-				return str:match(pattern, oldInit)
-			end
-		end
-	end
-	return gmatch_it
-end
-
-function math.max(max, ...)
-	local select = select
-	for i = 1, select("#", ...) do
-		local v = select(i, ...)
-		max = (max < v) and v or max
-	end
-	return max
-end
-
-function math.min(min, ...)
-	local select = select
-	for i = 1, select("#", ...) do
-		local v = select(i, ...)
-		min = (min > v) and v or min
-	end
-	return min
-end
-
-
-do
-	local error = error
-	local ccreate = coroutine.create
-	local cresume = coroutine.resume
-
-	local function wrap_helper(status, ...)
-		if status then
-			return ...
-		end
-		error(...)
-	end
-
-	function coroutine.wrap(f)
-		local coro = ccreate(f)
-		return function(...)
-			return wrap_helper(
-				cresume(
-					coro, ...
-				)
-			)
-		end
-	end
-end
-
 
 package = {}
 package.loaded = {
@@ -303,33 +214,6 @@ function string.gsub(s, pattern, repl, n)
 	end
 end
 
-function table.remove(t, i)
-    local len = #t
-    p = math.floor(tonumber(i) or len)
-    local ret = t[p]
-    for i=p, len - 1 do
-        t[i] = t[i + 1]
-    end
-    t[len] = nil
-    return ret
-end
-
-function table.insert(t, pos, ...)
-    local elem
-    if select("#", ...) < 1 then
-        elem = pos
-        pos = #t + 1
-    else
-        elem = select(1, ...)
-        pos = tonumber(pos)
-    end
-    local len = #t
-    for i = len, pos, -1 do
-        t[i + 1] = t[i]
-    end
-    t[pos] = elem
-end
-
 function table.maxn(t)
     local max = 0
     for k, v in pairs(t) do
@@ -138,3 +138,29 @@ do
 	testAssert(not ok)
 end
 
+
+do
+	-- constant operands are folded at compile time
+	testAssert(2^10 == 1024)
+	testAssert(7 % 3 == 1)
+	local x = "mid"
+	testAssert("a" .. "b" .. "c" == "abc")
+	testAssert(x .. "b" .. 1 .. 2.5 == "midb12.5")
+	testAssert("a" .. x .. "c" .. "d" == "amidcd")
+
+	-- jumps into and around removed code
+	local function f(a, b)
+		while true do
+			if a then
+				if b then return 1 else return 2 end
+			else
+				break
+			end
+		end
+		return a == nil and 3 or 4
+	end
+	testAssert(f(true, true) == 1)
+	testAssert(f(true, false) == 2)
+	testAssert(f(nil) == 3)
+	testAssert(f(false) == 4)
+end
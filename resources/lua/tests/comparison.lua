@@ -25,3 +25,12 @@ testAssert(ta ~= tb, "same metatable for __eq")
 testAssert(tb == tc, "different metatables for __eq")
 testAssert(td == td, "not using metatable")
 
+
+do
+	local nan = 0/0
+	testAssert(not rawequal(nan, nan), "NaN rawequal to itself")
+	testAssert(nan ~= nan, "NaN equal to itself")
+	testAssert(not (nan == nan), "NaN equal to itself")
+	local s1, s2 = "ab", "a" .. ("b"):rep(1)
+	testAssert(rawequal(s1, s2))
+end
@@ -418,3 +418,53 @@ testCall(function()
     assert(b == 2, "expected 2 but got " .. a)
 end)
 
+
+do
+	-- finished coroutines hand their stacks on to new ones
+	local dead = {}
+	local getters = {}
+	for i = 1, 20 do
+		local co = coroutine.create(function(a, b)
+			local x = a .. b
+			getters[i] = function() return x end
+			coroutine.yield(x)
+			return x, i
+		end)
+		local ok, v = coroutine.resume(co, "a", i)
+		testAssert(ok and v == "a" .. i)
+		local ok2, v2, n = coroutine.resume(co)
+		testAssert(ok2 and v2 == "a" .. i and n == i)
+		dead[i] = co
+	end
+	for i = 1, 20 do
+		testAssert(coroutine.status(dead[i]) == "dead")
+		testAssert(not pcall(coroutine.resume, dead[i]))
+		testAssert(getters[i]() == "a" .. i)
+	end
+end
+
+testCall("coroutine.wrap passes values both ways and rethrows errors", function()
+	local gen = coroutine.wrap(function(a, b)
+		local c = coroutine.yield(a + b)
+		local d, e = coroutine.yield()
+		return c, d, e
+	end)
+	assert(type(gen) == "function")
+	assert(gen(1, 2) == 3)
+	assert(select("#", gen("c")) == 0)
+	local c, d, e = gen("d", nil)
+	assert(c == "c" and d == "d" and e == nil)
+	assert(not pcall(gen))
+
+	local err = {}
+	local bad = coroutine.wrap(function() coroutine.yield(1) error(err) end)
+	assert(bad() == 1)
+	local ok, msg = pcall(bad)
+	assert(not ok and msg == err)
+
+	local outer = coroutine.wrap(function()
+		local inner = coroutine.wrap(function() coroutine.yield("x") return "y" end)
+		coroutine.yield(inner() .. inner())
+	end)
+	assert(outer() == "xy")
+end)
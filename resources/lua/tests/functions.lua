@@ -19,3 +19,33 @@ testAssert(y == 20)
 testAssert(z == 30)
 testAssert(z2 == nil)
 
+
+do
+	local function make(n)
+		return function(v) return v * 2 end, function(v) return v + n end
+	end
+	local d1, a1 = make(1)
+	local d2, a2 = make(2)
+	testAssert(d1(4) == 8 and d2(4) == 8)
+	testAssert(d1 ~= d2)
+	testAssert(a1(4) == 5 and a2(4) == 6)
+	testAssert(a1 ~= a2)
+
+	-- each evaluation of a function expression is a closure of its own
+	local fs = {}
+	for i = 1, 2 do
+		fs[i] = function() return marker end
+	end
+	setfenv(fs[1], {marker = "sandbox"})
+	testAssert(fs[1]() == "sandbox")
+	testAssert(fs[2]() == nil)
+	testAssert(fs[1] ~= fs[2])
+
+	local function getter() return function() return marker end end
+	local g1 = getter()
+	setfenv(g1, {marker = "env"})
+	local g2 = getter()
+	testAssert(g1() == "env")
+	testAssert(g2() == nil)
+	testAssert(g1 ~= g2)
+end
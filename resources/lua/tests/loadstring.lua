@@ -9,3 +9,21 @@ return fac(7)
 ]]
 testAssert(f() == 5040)
 
+
+do
+	local results = fixtures.compileall(
+		"first", "return 1",
+		"broken", "return +",
+		"second", "local x = ... return x * 2",
+		"unclosed", "if true then",
+		"third", "return 'three'")
+	testAssert(#results == 5)
+	testAssert(results[1].name == "first" and results[1].ok and results[1].error == nil)
+	testAssert(results[1].fn() == 1)
+	testAssert(results[2].name == "broken" and not results[2].ok and results[2].fn == nil)
+	testAssert(type(results[2].error) == "string")
+	testAssert(results[3].name == "second" and results[3].fn(21) == 42)
+	testAssert(results[4].name == "unclosed" and not results[4].ok)
+	testAssert(type(results[4].error) == "string")
+	testAssert(results[5].name == "third" and results[5].fn() == "three")
+end
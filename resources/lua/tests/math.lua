@@ -375,3 +375,26 @@ end
 testAssertEquals(math.pow(1.234, 10.170355), 8.48608917)
 
 
+
+do
+	local zero, negzero = 0, -0
+	local x = 5
+	assert(1 / (x - 5) == math.huge)
+	assert(1 / -(x - 5) == -math.huge)
+	assert(1 / math.ceil(-0.5) == -math.huge)
+	assert(1 / zero == math.huge and 1 / negzero == -math.huge)
+	assert(x - 5 == 0 and 1024 + x == 1029 and -129 + x == -124)
+end
+
+do
+	assert(math.max(3) == 3 and math.min(3) == 3)
+	assert(math.max(1, 5, -2, 4) == 5 and math.min(1, 5, -2, 4) == -2)
+	assert(math.max("10", 9) == 10 and math.min(2, "1.5") == 1.5)
+	local t = {}
+	for i = 1, 500 do
+		t[i] = (i * 37) % 501
+	end
+	assert(math.max(unpack(t)) == 500 and math.min(unpack(t)) == 1)
+	assert(not pcall(math.max))
+	assert(not pcall(math.min, 1, {}))
+end
@@ -129,3 +129,26 @@ do
 	testAssert(t2 ~= t1)
 end
 
+
+do
+	-- the same instructions first see numbers, then strings and tables
+	local function add(a, b) return a + b end
+	local function less(a, b) return a < b end
+	local function field(t) return t.x end
+	for i = 1, 3 do
+		testAssert(add(i, 1) == i + 1)
+		testAssert(less(i, 10))
+		testAssert(field({x = i}) == i)
+	end
+	testAssert(add("1", "2") == 3)
+	testAssert(less("a", "b"))
+	testAssert(field(setmetatable({}, {__index = {x = "inherited"}})) == "inherited")
+
+	local meta = {}
+	meta.__add = function(a, b) return add(a.v, b.v) end
+	meta.__lt = function(a, b) return less(a.v, b.v) end
+	local x, y = setmetatable({v = 1}, meta), setmetatable({v = 2}, meta)
+	testAssert(add(x, y) == 3)
+	testAssert(less(x, y) and not less(y, x))
+	testAssert(add(2, 3) == 5 and less(2, 3))
+end
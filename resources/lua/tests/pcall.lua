@@ -15,3 +15,14 @@ testCall(function()
 	assert(type(c) == "userdata")
 end)
 
+
+do
+	-- an error half way through a concatenation must not leak into the next call
+	local function bad(x) return x .. "b" .. {} .. "c" end
+	local function good(x) return x .. "y" .. "z" end
+	for i = 1, 3 do
+		testAssert(not pcall(bad, "a"))
+		local ok, s = pcall(good, "x")
+		testAssert(ok and s == "xyz")
+	end
+end
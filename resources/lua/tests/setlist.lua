@@ -48,3 +48,13 @@ testCall(function()
 	end
 end)
 
+
+testCall(function()
+	local function three() return 7, 8, 9 end
+	local t = {1, 2, x = "x", y = "y", 3, nil, 5, three()}
+	assert(t.x == "x" and t.y == "y")
+	assert(t[1] == 1 and t[3] == 3 and t[4] == nil and t[5] == 5)
+	assert(t[6] == 7 and t[8] == 9 and t[9] == nil)
+	t[100] = 100
+	assert(t[100] == 100 and t[2] == 2)
+end)
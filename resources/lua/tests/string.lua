@@ -381,3 +381,58 @@ if ok == false then
 	testAssert("", found, "got " .. err)
 end
 
+
+do
+	testAssertEqual(("hello hello world"):match("(%a+) %1"), "hello")
+	testAssertEqual(("say 'hi' now"):match("(['\"])(.-)%1"), "'")
+	testAssertEqual(select(2, ("say 'hi' now"):match("(['\"])(.-)%1")), "hi")
+	testAssertEqual(("THE (quick) fox"):find("%f[%a]%a+%f[%A]", 5), 6)
+	testAssertEqual(("abc"):gsub("()", "%1"), "1a2b3c4")
+	testAssertEqual(("key = value"):match("^(%w+)%s*=%s*(%w+)$"), "key")
+	testAssertEqual(("x[]y"):match("[]]"), "]")
+	testAssertEqual(("a.b-c"):gsub("[%.%-]", "_"), "a_b_c")
+	local ok, err = pcall(string.find, "abc", "b[a")
+	testAssertEqual(ok, false)
+	local ok, err = pcall(string.find, "abc", "%")
+	testAssertEqual(ok, false)
+	local count = 0
+	for i = 1, 300 do
+		if ("line " .. i .. ": ok"):find("^line (%d+): (%a+)$") then
+			count = count + 1
+		end
+	end
+	testAssertEqual(count, 300)
+end
+
+do
+	local words = {}
+	for w in ("one two  three"):gmatch("%a+") do
+		words[#words + 1] = w
+	end
+	testAssertEqual(table.concat(words, ","), "one,two,three")
+
+	local n = 0
+	for e in ("abc"):gmatch("x*") do
+		testAssertEqual(e, "")
+		n = n + 1
+	end
+	testAssertEqual(n, 4)
+
+	local it = ("a1b2"):gmatch("()(%d)")
+	local pos, digit = it()
+	testAssertEqual(pos, 2)
+	testAssertEqual(digit, "1")
+	pos, digit = it()
+	testAssertEqual(pos, 4)
+	testAssertEqual(it(), nil)
+	testAssertEqual(it(), nil)
+end
+
+do
+	local x = "b"
+	testAssert(rawequal("ab", "a" .. x))
+	testAssert(rawequal(("xab"):sub(2), "ab"))
+	testAssert(("abc"):sub(2, 2) == "b" and ("abc"):sub(-1) == "c")
+	testAssert(string.char(955):len() == 1 and string.char(97) == "a")
+	testAssert(not rawequal("1", 1))
+end
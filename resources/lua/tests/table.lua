@@ -150,6 +150,54 @@ do
 	sortAndVerify{1000, 100, 2000, 200, 150}
 	sortAndVerify{1, 2, 3, 4, 5, 6}
 	sortAndVerify{6, 5, 4, 3, 2, 1}
+	sortAndVerify{"b", "c", "a", "ab"}
+
+	local big = {}
+	for i = 1, 1000 do
+		big[i] = i
+	end
+	sortAndVerify(big)
+
+	local desc = {3, 1, 4, 1, 5, 9, 2, 6}
+	table.sort(desc, function(a, b) return a > b end)
+	testAssert(table.concat(desc, ",") == "9,6,5,4,3,2,1,1")
+
+	for i = 1, 1000 do
+		big[i] = 1001 - i
+	end
+	table.sort(big, function(a, b) return a < b end)
+	local ordered = true
+	for i = 1, 1000 do
+		ordered = ordered and big[i] == i
+	end
+	testAssert(ordered)
+
+	local mt = {__lt = function(a, b) return a.v < b.v end}
+	local objs = {}
+	for i, v in ipairs{5, 3, 8, 1} do
+		objs[i] = setmetatable({v = v}, mt)
+	end
+	table.sort(objs)
+	testAssert(objs[1].v == 1 and objs[2].v == 3 and objs[3].v == 5 and objs[4].v == 8)
+
+	testAssert(not pcall(table.sort, {1, "x", 2}))
+
+	-- NaN is unordered, so this must not take the Arrays.sort path, but the values must survive
+	local nan = {3, 0/0, 1, 2}
+	for i = 5, 40 do
+		nan[i] = 45 - i
+	end
+	testCall(function() table.sort(nan) end)
+	local nans, sum = 0, 0
+	for i = 1, 40 do
+		local v = nan[i]
+		if v ~= v then
+			nans = nans + 1
+		else
+			sum = sum + v
+		end
+	end
+	testAssert(#nan == 40 and nans == 1 and sum == 6 + (5 + 40) * 36 / 2)
 end
 
 do
@@ -174,6 +222,29 @@ do
 	testAssert(t[2] == 1, "t[2] is "..tostring(t[2])..", expected is 1")
 	testAssert(t[3] == nil, "t[3] is "..tostring(t[3])..", expected is nil")
 	testAssert(v == 2, "returned value is "..tostring(v)..", expected is 2")
+
+	testAssert(table.remove(t) == 1)
+	testAssert(#t == 1)
+	testAssert(table.remove({}) == nil)
+	testAssert(select("#", table.remove({})) == 0)
+
+	table.insert(t, 2, "end")
+	testAssert(t[2] == "end" and #t == 2)
+	testAssert(not pcall(table.insert, t, 1, 2, 3))
+
+	local function insertError(...)
+		local ok, err = pcall(table.insert, ...)
+		testAssert(not ok)
+		return err
+	end
+	testAssert(endswith(insertError(t, 4, "gap"), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError(t, 0, "x"), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError({1, 2, 3}, -2^31, 9), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(endswith(insertError({1, 2, 3}, 2^40, 9), "bad argument #2 to 'insert' (position out of bounds)"))
+	testAssert(#t == 2 and t[3] == nil)
+	testAssert(endswith(insertError(nil, 1), "bad argument #1 to 'insert' (table expected, got nil)"))
+	testAssert(endswith(select(2, pcall(table.remove, "x")), "bad argument #1 to 'remove' (table expected, got string)"))
+	testAssert(endswith(select(2, pcall(table.sort, 5)), "bad argument #1 to 'sort' (table expected, got number)"))
 end
 
 do
@@ -200,3 +271,51 @@ do
     testAssert(table.maxn({1, 2, 3, [{}]=8}) == 3)
     testAssert(table.maxn({[13.2]={}, [14.9]={}}) == 14.9)
 end
+
+do -- integral keys that differ only in their high bits
+    local t = {}
+    for i = 1, 200 do
+        t[i * 65536] = i
+        t[-i * 65536] = -i
+    end
+    local sum = 0
+    for i = 1, 200 do
+        testAssert(t[i * 65536] == i and t[-i * 65536] == -i)
+        t[-i * 65536] = nil
+    end
+    for k, v in pairs(t) do
+        sum = sum + v
+    end
+    testAssert(sum == 200 * 201 / 2)
+end
+
+do -- traversal
+    local t = {}
+    for i = 1, 100 do
+        t[i] = i
+        t["s" .. i] = i
+    end
+    local count, sum = 0, 0
+    for k, v in pairs(t) do
+        count = count + 1
+        sum = sum + v
+        t[k] = nil -- clearing fields during traversal is allowed
+    end
+    testAssert(count == 200 and sum == 2 * 5050)
+    testAssert(next(t) == nil)
+
+    local seen = 0
+    for i, v in ipairs({10, 20, 30, nil, 50}) do
+        testAssert(v == i * 10)
+        seen = seen + 1
+    end
+    testAssert(seen == 3)
+
+    local proxy = setmetatable({1}, {__index = function(_, i) if i <= 3 then return i end end})
+    seen = 0
+    for i, v in ipairs(proxy) do
+        seen = seen + v
+    end
+    testAssert(seen == 6)
+    testAssert(not pcall(next, {}, "missing"))
+end
@@ -69,3 +69,25 @@ do
    testAssert(v == 10)
 end
 
+
+do
+	-- captures out of stack order share one upvalue per local until it is closed
+	local a, b, c, d = 1, 2, 3, 4
+	local getc = function() return c end
+	local geta = function() return a end
+	local setc = function(v) c = v end
+	local getd = function() return d end
+	local seta = function(v) a = v end
+	local getb = function() return b end
+	setc(30)
+	seta(10)
+	testAssert(getc() == 30 and c == 30 and geta() == 10 and a == 10)
+	testAssert(getb() == 2 and getd() == 4)
+	local fs = {}
+	for i = 1, 5 do
+		local x = i
+		fs[i] = function() x = x + b return x end
+	end
+	b = 100
+	testAssert(fs[1]() == 101 and fs[5]() == 105 and fs[5]() == 205)
+end
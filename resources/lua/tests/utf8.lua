@@ -5,3 +5,9 @@ testAssert(utf8str:sub(6, 6) == " ")
 testAssert(utf8str:sub(7, 7) == "w")
 testAssert(utf8str:sub(8, 8) == "ö")
 
+
+local f = loadstring("return 'wörld', [[ö]], '\\246'")
+local a, b, c = f()
+testAssert(a == "wörld" and #a == 5)
+testAssert(b == "ö")
+testAssert(c == string.char(246) and c == "ö")
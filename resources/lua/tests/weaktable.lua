@@ -81,3 +81,29 @@ do
 	assert(next(t) == nil)
 end
 
+
+do
+	-- collected keys must not break lookups of the keys that share their chains
+	local t = setmetatable({}, {__mode = "k"})
+	local keep = {}
+	for i = 1, 200 do
+		local k = {}
+		t[k] = i
+		if i % 10 == 0 then
+			keep[#keep + 1] = k
+		end
+	end
+	collectgarbage()
+	for i = 1, 200 do
+		t[{}] = i
+	end
+	collectgarbage()
+	for i, k in ipairs(keep) do
+		testAssert(t[k] == i * 10)
+	end
+	testAssert(count(t) == #keep)
+	setmetatable(t, nil)
+	for i, k in ipairs(keep) do
+		testAssert(t[k] == i * 10)
+	end
+end
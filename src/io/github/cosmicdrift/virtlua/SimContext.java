@@ -108,11 +108,10 @@ public class SimContext {
         state.getEnvironment().rawset("post", new JavaFunction() {
             @Override
             public int call(LuaCallFrame callFrame, int nArguments) {
+                // the stack is reused, so this is the one copy the message needs
                 Object[] ps = new Object[nArguments];
-                for (int i = 0; i < nArguments; i++) {
-                    ps[i] = callFrame.get(i);
-                }
-                fromSim.add(new SimMessage(ps));
+                callFrame.getAll(0, ps, 0, nArguments);
+                fromSim.add(new SimMessage(ps, true));
                 return 0;
             }
         });
@@ -123,10 +122,7 @@ public class SimContext {
                 if (m == null) {
                     return 0;
                 } else {
-                    for (int i = 0; i < m.length(); i++) {
-                        callFrame.push(m.get(i));
-                    }
-                    return m.length();
+                    return m.pushTo(callFrame);
                 }
             }
         });
@@ -135,10 +131,7 @@ public class SimContext {
             public int call(LuaCallFrame callFrame, int nArguments) {
                 SimMessage m = systemInfo;
                 callFrame.push(version);
-                for (int i = 0; i < m.length(); i++) {
-                    callFrame.push(m.get(i));
-                }
-                return 1 + m.length();
+                return 1 + m.pushTo(callFrame);
             }
         });
         state.getEnvironment().rawset("kexec", new JavaFunction() {
@@ -21,26 +21,73 @@
  */
 package io.github.cosmicdrift.virtlua;
 
+import java.nio.charset.StandardCharsets;
+
+import se.krka.kahlua.stdlib.BaseLib;
+import se.krka.kahlua.vm.LuaCallFrame;
+
 public final class SimMessage {
     private final Object[] params;
     
+    /**
+     * Creates a message. Byte arrays are passed to Lua as binary strings, with
+     * one character (0-255) per byte, so that string.byte returns the bytes.
+     * A short message name is interned, since messages are dispatched on it.
+     */
     public SimMessage(Object... params) {
+        this(params, false);
+    }
+
+    /**
+     * @param owned whether params is a fresh array that nothing else holds
+     * on to, which can then be converted in place instead of copied
+     */
+    SimMessage(Object[] params, boolean owned) {
         if (params == null || params.length < 1 || params[0] == null) {
             throw new IllegalArgumentException("SimMessage requires at least one parameter!");
         }
-        for (Object o : params) {
-            if (o != null && !(o instanceof String) && !(o instanceof Double) && !(o instanceof Boolean)) {
-                throw new IllegalArgumentException("SimMessage can only take null, strings, doubles, and booleans!");
+        Object[] copy = owned ? params : null;
+        for (int i = 0; i < params.length; i++) {
+            Object o = params[i];
+            if (o instanceof byte[]) {
+                if (copy == null) {
+                    copy = params.clone();
+                }
+                copy[i] = new String((byte[]) o, StandardCharsets.ISO_8859_1);
+            } else if (i == 0 && o instanceof String) {
+                // only the name: payloads are untrusted and would fill the JVM-wide intern pool
+                String interned = BaseLib.intern((String) o);
+                if (interned != o) {
+                    if (copy == null) {
+                        copy = params.clone();
+                    }
+                    copy[i] = interned;
+                }
+            } else if (o != null && !(o instanceof String) && !(o instanceof Double) && !(o instanceof Boolean)) {
+                throw new IllegalArgumentException("SimMessage can only take null, strings, byte arrays, doubles, and booleans!");
             }
         }
-        this.params = params;
+        this.params = copy != null ? copy : params;
     }
     
     public int length() {
         return params.length;
     }
     
+    int pushTo(LuaCallFrame callFrame) {
+        return callFrame.pushAll(params, 0, params.length);
+    }
+
     public Object get(int i) {
         return i < params.length ? params[i] : null;
     }
+
+    /**
+     * Gets a binary string parameter as bytes. Characters above 255 can not
+     * have come from a binary string, and are replaced with '?'.
+     */
+    public byte[] getBytes(int i) {
+        Object o = get(i);
+        return o instanceof String ? ((String) o).getBytes(StandardCharsets.ISO_8859_1) : null;
+    }
 }
@@ -23,11 +23,12 @@
  */
 package org.luaj.kahluafork.compiler;
 
-import java.util.Hashtable;
+import java.util.HashMap;
 
 import org.luaj.kahluafork.compiler.LexState.ConsControl;
 import org.luaj.kahluafork.compiler.LexState.expdesc;
 
+import se.krka.kahlua.stdlib.MathLib;
 import se.krka.kahlua.vm.LuaException;
 import se.krka.kahlua.vm.LuaPrototype;
 
@@ -61,7 +62,7 @@ public class FuncState {
     LuaPrototype f;  /* current function header */
 //	LTable h;  /* table to find (and reuse) elements in `k' */
 
-    Hashtable htable;  /* table to find (and reuse) elements in `k' */
+    HashMap<Object, Integer> htable;  /* table to find (and reuse) elements in `k' */
 
     FuncState prev;  /* enclosing function */
 
@@ -489,11 +490,12 @@ public class FuncState {
 
     int addk(Object v) {
         int idx;
-        if (this.htable.containsKey(v)) {
-            idx = ((Integer) htable.get(v)).intValue();
+        Integer known = htable.get(v);
+        if (known != null) {
+            idx = known.intValue();
         } else {
             idx = this.nk;
-            this.htable.put(v, new Integer(idx));
+            this.htable.put(v, Integer.valueOf(idx));
             final LuaPrototype f = this.f;
             if (f.constants == null || nk + 1 >= f.constants.length) {
                 f.constants = realloc(f.constants, nk * 2 + 1);
@@ -930,10 +932,15 @@ public class FuncState {
                 r = v1 / v2;
                 break;
             case OP_MOD:
-                r = v1 % v2;
+                /* same as LuaState.primitiveMath, so folding can't change results */
+                if (v2 == 0) {
+                    return false;
+                }
+                r = v1 - ((int) (v1 / v2)) * v2;
                 break;
             case OP_POW:
-                return false;
+                r = MathLib.pow(v1, v2);
+                break;
             case OP_UNM:
                 r = -v1;
                 break;
@@ -1270,6 +1277,14 @@ public class FuncState {
         return a;
     }
 
+    static char[] realloc(char[] v, int n) {
+        char[] a = new char[n];
+        if (v != null) {
+            System.arraycopy(v, 0, a, 0, Math.min(v.length, n));
+        }
+        return a;
+    }
+
     /**
      * use return values from previous op
      */
@@ -25,16 +25,17 @@ package org.luaj.kahluafork.compiler;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.io.UnsupportedEncodingException;
-import java.util.Hashtable;
+import java.util.HashMap;
+import java.util.HashSet;
 import org.luaj.kahluafork.compiler.FuncState.BlockCnt;
+import se.krka.kahlua.stdlib.BaseLib;
 import se.krka.kahlua.vm.LuaException;
 import se.krka.kahlua.vm.LuaPrototype;
 
 public class LexState {
 
     public int nCcalls;
-    Hashtable strings = new Hashtable();
+    HashMap<String, String> strings = new HashMap<String, String>();
 
     protected static final String RESERVED_LOCAL_VAR_FOR_CONTROL = "(for control)";
     protected static final String RESERVED_LOCAL_VAR_FOR_STATE = "(for state)";
@@ -44,7 +45,7 @@ public class LexState {
     protected static final String RESERVED_LOCAL_VAR_FOR_INDEX = "(for index)";
 
     // keywords array
-    protected static final String[] RESERVED_LOCAL_VAR_KEYWORDS = new String[]{
+    private static final String[] RESERVED_LOCAL_VAR_KEYWORDS = new String[]{
         RESERVED_LOCAL_VAR_FOR_CONTROL,
         RESERVED_LOCAL_VAR_FOR_GENERATOR,
         RESERVED_LOCAL_VAR_FOR_INDEX,
@@ -52,11 +53,11 @@ public class LexState {
         RESERVED_LOCAL_VAR_FOR_STATE,
         RESERVED_LOCAL_VAR_FOR_STEP
     };
-    private static final Hashtable RESERVED_LOCAL_VAR_KEYWORDS_TABLE = new Hashtable();
+    private static final HashSet<String> RESERVED_LOCAL_VAR_KEYWORDS_TABLE = new HashSet<String>();
 
     static {
         for (int i = 0; i < RESERVED_LOCAL_VAR_KEYWORDS.length; i++) {
-            RESERVED_LOCAL_VAR_KEYWORDS_TABLE.put(RESERVED_LOCAL_VAR_KEYWORDS[i], Boolean.TRUE);
+            RESERVED_LOCAL_VAR_KEYWORDS_TABLE.add(RESERVED_LOCAL_VAR_KEYWORDS[i]);
         }
     }
 
@@ -75,7 +76,7 @@ public class LexState {
     }
 
     public static boolean isReservedKeyword(String varName) {
-        return RESERVED_LOCAL_VAR_KEYWORDS_TABLE.containsKey(varName);
+        return RESERVED_LOCAL_VAR_KEYWORDS_TABLE.contains(varName);
     }
 
     /*
@@ -141,18 +142,24 @@ public class LexState {
 
     FuncState fs;  /* `FuncState' is private to the parser */
 
-    Reader z;  /* input stream */
+    boolean optimize;  /* run the peephole pass on finished functions */
 
-    byte[] buff;  /* buffer for tokens */
+    char[] z;  /* source text */
+
+    int zpos;  /* index of the character after `current' */
+
+    int zend;  /* end of the source text in z */
+
+    char[] buff;  /* buffer for tokens */
 
     int nbuff; /* length of buffer */
 
     String source;  /* current source name */
 
-    byte decpoint;  /* locale decimal point */
+    char decpoint;  /* locale decimal point */
 
     /* ORDER RESERVED */
-    final static String luaX_tokens[] = {
+    private final static String luaX_tokens[] = {
         "and", "break", "do", "else", "elseif",
         "end", "false", "for", "function", "if",
         "in", "local", "nil", "not", "or", "repeat",
@@ -171,12 +178,12 @@ public class LexState {
     final static int FIRST_RESERVED = TK_AND;
     final static int NUM_RESERVED = TK_WHILE + 1 - FIRST_RESERVED;
 
-    final static Hashtable RESERVED = new Hashtable();
+    final static HashMap<String, Integer> RESERVED = new HashMap<String, Integer>();
 
     static {
         for (int i = 0; i < NUM_RESERVED; i++) {
             String ts = luaX_tokens[i];
-            RESERVED.put(ts, new Integer(FIRST_RESERVED + i));
+            RESERVED.put(ts, Integer.valueOf(FIRST_RESERVED + i));
         }
     }
 
@@ -202,10 +209,47 @@ public class LexState {
     }
 
     public static LuaPrototype compile(int firstByte, Reader z, String name) {
-        LexState lexstate = new LexState(z);
+        return compile(firstByte, z, name, true);
+    }
+
+    /**
+     * Compiles a chunk. With optimize set, every finished function is run
+     * through the {@link Peephole} pass before it is returned.
+     */
+    public static LuaPrototype compile(int firstByte, Reader z, String name, boolean optimize) {
+        char[] chars = new char[4096];
+        int len = 0;
+        if (firstByte != EOZ) {
+            chars[len++] = (char) firstByte;
+        }
+        try {
+            int n;
+            while ((n = z.read(chars, len, chars.length - len)) != -1) {
+                len += n;
+                if (len == chars.length) {
+                    chars = FuncState.realloc(chars, len * 2);
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace(); /* compile what was read, like a truncated stream */
+        }
+        return compile(chars, 0, len, name, optimize);
+    }
+
+    public static LuaPrototype compile(CharSequence source, String name) {
+        String s = source.toString();
+        return compile(s.toCharArray(), 0, s.length(), name, true);
+    }
+
+    /**
+     * Compiles the chunk in chars[offset, offset + length). The lexer reads
+     * straight from the array, which must not change until this returns.
+     */
+    public static LuaPrototype compile(char[] chars, int offset, int length, String name, boolean optimize) {
+        LexState lexstate = new LexState();
+        lexstate.optimize = optimize;
         FuncState funcstate = new FuncState();
-        // lexstate.buff = buff;
-        lexstate.setinput(firstByte, z, name);
+        lexstate.setinput(chars, offset, offset + length, name);
         lexstate.open_func(funcstate);
         /* main func. is always vararg */
         funcstate.isVararg = FuncState.VARARG_ISVARARG;
@@ -221,18 +265,12 @@ public class LexState {
         return funcstate.f;
     }
 
-    public LexState(Reader stream) {
-        this.z = stream;
-        this.buff = new byte[32];
+    public LexState() {
+        this.buff = new char[32];
     }
 
     void nextChar() {
-        try {
-            current = z.read();
-        } catch (IOException e) {
-            e.printStackTrace();
-            current = EOZ;
-        }
+        current = zpos < zend ? z[zpos++] : EOZ;
     }
 
     boolean currIsNewline() {
@@ -248,7 +286,7 @@ public class LexState {
         if (buff == null || nbuff + 1 > buff.length) {
             buff = FuncState.realloc(buff, nbuff * 2 + 1);
         }
-        buff[nbuff++] = (byte) c;
+        buff[nbuff++] = (char) c;
     }
 
     String token2str(int token) {
@@ -313,19 +351,14 @@ public class LexState {
         return newTString(s);
     }
 
-    String newstring(byte[] chars, int offset, int len) {
-        try {
-            String s = new String(chars, offset, len, "UTF-8");
-            return newTString(s);
-        } catch (UnsupportedEncodingException e) {
-            return null;
-        }
+    String newstring(char[] chars, int offset, int len) {
+        return newTString(new String(chars, offset, len));
     }
 
     public String newTString(String s) {
-        String t = (String) strings.get(s);
+        String t = strings.get(s);
         if (t == null) {
-            t = s;
+            t = BaseLib.intern(s);
             strings.put(t, t);
         }
         return t;
@@ -345,18 +378,20 @@ public class LexState {
         }
     }
 
-    void setinput(int firstByte, Reader z, String source) {
+    void setinput(char[] z, int start, int end, String source) {
         this.decpoint = '.';
         this.lookahead.token = TK_EOS; /* no look-ahead token */
 
         this.z = z;
+        this.zpos = start;
+        this.zend = end;
         this.fs = null;
         this.linenumber = 1;
         this.lastline = 1;
         this.source = source;
         this.nbuff = 0;   /* initialize buffer */
 
-        this.current = firstByte; /* read first char */
+        this.nextChar(); /* read first char */
 
         this.skipShebang();
     }
@@ -382,9 +417,9 @@ public class LexState {
         return true;
     }
 
-    void buffreplace(byte from, byte to) {
+    void buffreplace(char from, char to) {
         int n = nbuff;
-        byte[] p = buff;
+        char[] p = buff;
         while ((--n) >= 0) {
             if (p[n] == from) {
                 p[n] = to;
@@ -445,7 +480,7 @@ public class LexState {
             save_and_next();
         }
         save('\0');
-        buffreplace((byte) '.', decpoint); /* follow locale for decimal point */
+        buffreplace('.', decpoint); /* follow locale for decimal point */
 
         String str = new String(buff, 0, nbuff);
 //		if (!str2d(str, seminfo)) /* format error? */
@@ -728,14 +763,19 @@ public class LexState {
                             save_and_next();
                         } while (isalnum(current) || current == '_');
                         ts = newstring(buff, 0, nbuff);
-                        if (RESERVED.containsKey(ts)) {
-                            return ((Integer) RESERVED.get(ts)).intValue();
+                        Integer reserved = RESERVED.get(ts);
+                        if (reserved != null) {
+                            return reserved.intValue();
                         } else {
                             token.ts = ts;
                             return TK_NAME;
                         }
                     } else {
                         int c = current;
+                        if (c >= FIRST_RESERVED) {
+                            /* would be mistaken for a reserved word token */
+                            lexerror("unexpected symbol near `" + (char) c + "`", 0);
+                        }
                         nextChar();
                         return c; /* single-char tokens (+ - / ...) */
 
@@ -1007,7 +1047,7 @@ public class LexState {
 
         //fs.h = new LTable();
 
-        fs.htable = new Hashtable();
+        fs.htable = new HashMap<Object, Integer>();
     }
 
     void close_func() {
@@ -1026,6 +1066,9 @@ public class LexState {
         fs.locvars = FuncState.realloc(fs.locvars, fs.nlocvars);
         // f.sizelocvars = fs.nlocvars;
         fs.upvalues = FuncState.realloc(fs.upvalues, f.numUpvalues);
+        if (optimize) {
+            Peephole.optimize(f);
+        }
         // FuncState._assert (CheckCode.checkcode(f));
         FuncState._assert(fs.bl == null);
         this.fs = fs.prev;
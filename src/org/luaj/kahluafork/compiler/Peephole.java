@@ -0,0 +1,304 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package org.luaj.kahluafork.compiler;
+
+import se.krka.kahlua.stdlib.BaseLib;
+import se.krka.kahlua.vm.LuaPrototype;
+
+/**
+ * A small peephole pass over a finished prototype, run from
+ * {@link LexState#close_func()} once the code arrays have been trimmed.
+ *
+ * It threads jumps to jumps, folds runs of constant operands of CONCAT,
+ * drops no-op moves and jumps and removes code that can never be reached,
+ * then compacts the code and line arrays and fixes up every jump offset.
+ * An instruction is only removed if no jump lands on it and it does not
+ * follow a test, since tests skip over exactly one instruction.
+ */
+final class Peephole {
+
+    /* how many jumps to follow when threading, to stay clear of cycles */
+    private static final int MAX_THREAD = 100;
+
+    private final LuaPrototype f;
+    private final int[] code;
+    private final int n;
+    /* words that are operands of the instruction before them, not code */
+    private final boolean[] data;
+    private final boolean[] target;
+    private final boolean[] removed;
+
+    private Peephole(LuaPrototype f) {
+        this.f = f;
+        this.code = f.code;
+        this.n = code.length;
+        this.data = new boolean[n];
+        this.target = new boolean[n + 1];
+        this.removed = new boolean[n];
+    }
+
+    static void optimize(LuaPrototype f) {
+        new Peephole(f).run();
+    }
+
+    private void run() {
+        markData();
+        threadJumps();
+        markTargets();
+        foldConcats();
+        removeNoOps();
+        removeDeadCode();
+        compact();
+    }
+
+    private void markData() {
+        for (int pc = 0; pc < n; pc++) {
+            int i = code[pc];
+            switch (FuncState.GET_OPCODE(i)) {
+                case FuncState.OP_CLOSURE: {
+                    int nup = f.prototypes[FuncState.GETARG_Bx(i)].numUpvalues;
+                    for (int j = 1; j <= nup && pc + j < n; j++) {
+                        data[pc + j] = true;
+                    }
+                    pc += nup;
+                    break;
+                }
+                case FuncState.OP_SETLIST:
+                    if (FuncState.GETARG_C(i) == 0 && pc + 1 < n) {
+                        data[++pc] = true;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static boolean isJump(int op) {
+        return op == FuncState.OP_JMP || op == FuncState.OP_FORLOOP || op == FuncState.OP_FORPREP;
+    }
+
+    private boolean isJmp(int pc) {
+        return pc >= 0 && pc < n && !data[pc] && FuncState.GET_OPCODE(code[pc]) == FuncState.OP_JMP;
+    }
+
+    /* true if the instruction at pc may skip the one after it */
+    private boolean isSkip(int pc) {
+        if (pc < 0 || data[pc]) {
+            return false;
+        }
+        int i = code[pc];
+        int op = FuncState.GET_OPCODE(i);
+        return FuncState.testTMode(op)
+                || (op == FuncState.OP_LOADBOOL && FuncState.GETARG_C(i) != 0);
+    }
+
+    private static int jumpTarget(int i, int pc) {
+        return pc + 1 + FuncState.GETARG_sBx(i);
+    }
+
+    private static int setJump(int i, int sBx) {
+        return (i & ~FuncState.MASK_Bx) | ((sBx + FuncState.MAXARG_sBx) << FuncState.POS_Bx);
+    }
+
+    private void threadJumps() {
+        for (int pc = 0; pc < n; pc++) {
+            if (!isJmp(pc)) {
+                continue;
+            }
+            int dest = jumpTarget(code[pc], pc);
+            for (int hops = 0; hops < MAX_THREAD && dest != pc && isJmp(dest); hops++) {
+                dest = jumpTarget(code[dest], dest);
+            }
+            code[pc] = setJump(code[pc], dest - pc - 1);
+        }
+    }
+
+    private void markTargets() {
+        for (int pc = 0; pc < n; pc++) {
+            if (data[pc]) {
+                continue;
+            }
+            int i = code[pc];
+            if (isJump(FuncState.GET_OPCODE(i))) {
+                target[jumpTarget(i, pc)] = true;
+            } else if (isSkip(pc) && pc + 2 <= n) {
+                target[pc + 2] = true;
+            }
+        }
+    }
+
+    /*
+     * R(A) := R(B) .. ... .. R(C) where the last registers were just loaded
+     * with string or number constants: concatenate those at compile time.
+     */
+    private void foldConcats() {
+        for (int pc = 0; pc < n; pc++) {
+            int i = code[pc];
+            if (data[pc] || FuncState.GET_OPCODE(i) != FuncState.OP_CONCAT || target[pc]) {
+                continue;
+            }
+            int b = FuncState.GETARG_B(i);
+            int c = FuncState.GETARG_C(i);
+            int first = pc;
+            int reg = c;
+            while (reg >= b && isConstantLoad(first - 1, reg)) {
+                first--;
+                reg--;
+            }
+            int count = pc - first;
+            if (count < 2 || isSkip(first - 1)) {
+                continue;
+            }
+            boolean inner = false;
+            for (int j = first + 1; j < pc; j++) {
+                inner |= target[j];
+            }
+            if (inner) {
+                continue;
+            }
+            StringBuilder sb = new StringBuilder();
+            for (int j = first; j < pc; j++) {
+                sb.append(BaseLib.rawTostring(f.constants[FuncState.GETARG_Bx(code[j])]));
+            }
+            int k = constant(sb.toString());
+            if (k > FuncState.MAXARG_Bx) {
+                continue;
+            }
+            for (int j = first + 1; j < pc; j++) {
+                removed[j] = true;
+            }
+            if (count == c - b + 1) {
+                removed[first] = true;
+                code[pc] = FuncState.CREATE_ABx(FuncState.OP_LOADK, FuncState.GETARG_A(i), k);
+            } else {
+                code[first] = FuncState.CREATE_ABx(FuncState.OP_LOADK, reg + 1, k);
+                code[pc] = FuncState.CREATE_ABC(FuncState.OP_CONCAT, FuncState.GETARG_A(i), b, reg + 1);
+            }
+        }
+    }
+
+    private boolean isConstantLoad(int pc, int reg) {
+        if (pc < 0 || data[pc] || removed[pc]) {
+            return false;
+        }
+        int i = code[pc];
+        if (FuncState.GET_OPCODE(i) != FuncState.OP_LOADK || FuncState.GETARG_A(i) != reg) {
+            return false;
+        }
+        return BaseLib.rawTostring(f.constants[FuncState.GETARG_Bx(i)]) != null;
+    }
+
+    private int constant(String s) {
+        Object[] k = f.constants;
+        for (int j = 0; j < k.length; j++) {
+            if (s.equals(k[j])) {
+                return j;
+            }
+        }
+        f.constants = FuncState.realloc(k, k.length + 1);
+        f.constants[k.length] = s;
+        return k.length;
+    }
+
+    private boolean removable(int pc) {
+        return !target[pc] && !isSkip(pc - 1);
+    }
+
+    private void removeNoOps() {
+        for (int pc = 0; pc < n; pc++) {
+            if (data[pc] || removed[pc] || !removable(pc)) {
+                continue;
+            }
+            int i = code[pc];
+            switch (FuncState.GET_OPCODE(i)) {
+                case FuncState.OP_MOVE: {
+                    int a = FuncState.GETARG_A(i);
+                    int b = FuncState.GETARG_B(i);
+                    if (a == b) {
+                        removed[pc] = true;
+                    } else if (pc > 0 && !data[pc - 1] && !removed[pc - 1] && !isSkip(pc - 2)) {
+                        int prev = code[pc - 1];
+                        if (FuncState.GET_OPCODE(prev) == FuncState.OP_MOVE
+                                && FuncState.GETARG_A(prev) == b && FuncState.GETARG_B(prev) == a) {
+                            removed[pc] = true;
+                        }
+                    }
+                    break;
+                }
+                case FuncState.OP_JMP:
+                    if (FuncState.GETARG_sBx(i) == 0) {
+                        removed[pc] = true;
+                    }
+                    break;
+            }
+        }
+    }
+
+    private boolean endsBlock(int pc) {
+        if (data[pc] || removed[pc]) {
+            return false;
+        }
+        int op = FuncState.GET_OPCODE(code[pc]);
+        return op == FuncState.OP_RETURN || (op == FuncState.OP_JMP && !isSkip(pc - 1));
+    }
+
+    private void removeDeadCode() {
+        boolean dead = false;
+        for (int pc = 1; pc < n; pc++) {
+            if (target[pc]) {
+                dead = false;
+            } else if (dead || endsBlock(pc - 1)) {
+                dead = true;
+                removed[pc] = true;
+            }
+        }
+    }
+
+    private void compact() {
+        int[] map = new int[n + 1];
+        int size = 0;
+        for (int pc = 0; pc < n; pc++) {
+            map[pc] = size;
+            if (!removed[pc]) {
+                size++;
+            }
+        }
+        map[n] = size;
+        if (size == n) {
+            return;
+        }
+        int[] newCode = new int[size];
+        int[] newLines = new int[size];
+        for (int pc = 0; pc < n; pc++) {
+            if (removed[pc]) {
+                continue;
+            }
+            int i = code[pc];
+            if (!data[pc] && isJump(FuncState.GET_OPCODE(i))) {
+                i = setJump(i, map[jumpTarget(i, pc)] - map[pc] - 1);
+            }
+            newCode[map[pc]] = i;
+            newLines[map[pc]] = f.lines[pc];
+        }
+        f.code = newCode;
+        f.lines = newLines;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.interp;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import se.krka.kahlua.luaj.compiler.LuaCompiler;
+import se.krka.kahlua.vm.LuaClosure;
+import se.krka.kahlua.vm.LuaState;
+
+/**
+ * Runs the scripts in resources/lua/bench (or the ones named on the command
+ * line) and prints how long each took. Every script runs in its own
+ * LuaState, a few times untimed to warm up the JIT and then bench.runs
+ * times timed. Where the JVM can count the bytes a thread allocates, the
+ * allocation of the median run is printed too. With bench.slice set, the
+ * scripts run metered, bench.slice ticks per continueCall, as a sim would.
+ */
+public class Benchmark {
+
+    public static void main(String[] args) throws IOException {
+        int warmup = Integer.getInteger("bench.warmup", 3);
+        int runs = Integer.getInteger("bench.runs", 5);
+        int slice = Integer.getInteger("bench.slice", -1);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocation = threads instanceof com.sun.management.ThreadMXBean
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long tid = Thread.currentThread().getId();
+
+        File[] files;
+        if (args.length > 0) {
+            files = new File[args.length];
+            for (int i = 0; i < args.length; i++) {
+                files[i] = new File(args[i]);
+            }
+        } else {
+            files = new File("resources/lua/bench").listFiles();
+            Arrays.sort(files);
+        }
+
+        for (File f : files) {
+            LuaState state = new LuaState();
+            LuaClosure closure;
+            try (BufferedReader input = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
+                closure = LuaCompiler.loadis(input, f.getName(), state.getEnvironment());
+            }
+            for (int i = 0; i < warmup; i++) {
+                run(state, closure, slice);
+            }
+            long[] times = new long[runs];
+            long[] bytes = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                long allocated = allocation != null ? allocation.getThreadAllocatedBytes(tid) : 0;
+                long start = System.nanoTime();
+                run(state, closure, slice);
+                times[i] = System.nanoTime() - start;
+                if (allocation != null) {
+                    bytes[i] = allocation.getThreadAllocatedBytes(tid) - allocated;
+                }
+            }
+            Arrays.sort(times);
+            Arrays.sort(bytes);
+            System.out.printf("%-24s min %8.2f ms   median %8.2f ms", f.getName(), times[0] / 1e6, times[runs / 2] / 1e6);
+            if (allocation != null) {
+                System.out.printf("   alloc %8.2f MB", bytes[runs / 2] / 1e6);
+            }
+            System.out.println();
+        }
+    }
+
+    private static void run(LuaState state, LuaClosure closure, int slice) {
+        if (slice == -1) {
+            state.call(closure);
+        } else {
+            state.startCall(closure);
+            while (!state.continueCall(slice)) {
+                // next slice
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.interp;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import se.krka.kahlua.luaj.compiler.CompileResult;
+import se.krka.kahlua.luaj.compiler.LuaCompiler;
+import se.krka.kahlua.vm.JavaFunction;
+import se.krka.kahlua.vm.JavaFunction1;
+import se.krka.kahlua.vm.JavaFunction2;
+import se.krka.kahlua.vm.LuaCallFrame;
+import se.krka.kahlua.vm.LuaClosure;
+import se.krka.kahlua.vm.LuaState;
+import se.krka.kahlua.vm.LuaTable;
+
+/**
+ * Java functions that the unit tests use to reach Java-only APIs. They are
+ * put in the global table "fixtures".
+ */
+public class TestFixtures {
+
+    public static void register(LuaState state) {
+        LuaTable fixtures = new LuaTable();
+        final LuaTable env = state.getEnvironment();
+
+        // compileall(name1, source1, name2, source2, ...) returns an array of
+        // {name = ..., ok = ..., error = ..., fn = ...} in the order of the names
+        fixtures.rawset("compileall", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                Map<String, String> sources = new LinkedHashMap<String, String>();
+                for (int i = 0; i + 1 < nArguments; i += 2) {
+                    sources.put((String) callFrame.get(i), (String) callFrame.get(i + 1));
+                }
+                LuaTable results = new LuaTable();
+                int n = 0;
+                for (CompileResult result : LuaCompiler.compileAll(sources).values()) {
+                    LuaTable t = new LuaTable();
+                    t.rawset("name", result.getName());
+                    t.rawset("ok", Boolean.valueOf(result.isSuccess()));
+                    t.rawset("error", result.getError());
+                    if (result.isSuccess()) {
+                        t.rawset("fn", new LuaClosure(result.getPrototype(), env));
+                    }
+                    results.rawset(++n, t);
+                }
+                return callFrame.push(results);
+            }
+        });
+
+        // the typed argument accessors of LuaCallFrame, one fixture each
+        fixtures.rawset("checkdouble", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                return callFrame.push(Double.valueOf(callFrame.checkDouble(1, "checkdouble")));
+            }
+        });
+        fixtures.rawset("checkint", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                return callFrame.push(Double.valueOf(callFrame.checkInt(1, "checkint")));
+            }
+        });
+        fixtures.rawset("checkstring", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                return callFrame.push(callFrame.checkString(1, "checkstring"));
+            }
+        });
+        fixtures.rawset("optdouble", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                return callFrame.push(Double.valueOf(callFrame.optDouble(1, 0.5, "optdouble")));
+            }
+        });
+        fixtures.rawset("optint", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                return callFrame.push(Double.valueOf(callFrame.optInt(1, 7, "optint")));
+            }
+        });
+
+        // returns all its arguments but the first, copied out and pushed back
+        fixtures.rawset("dropfirst", new JavaFunction() {
+            @Override
+            public int call(LuaCallFrame callFrame, int nArguments) {
+                if (nArguments <= 1) {
+                    return 0;
+                }
+                Object[] args = new Object[nArguments];
+                callFrame.getAll(0, args, 0, nArguments);
+                return callFrame.pushAll(args, 1, nArguments - 1);
+            }
+        });
+
+        fixtures.rawset("typeof", (JavaFunction1) arg -> arg == null ? "nil" : arg.getClass().getSimpleName());
+        fixtures.rawset("pair", (JavaFunction2) (arg1, arg2) -> arg1 + "," + arg2);
+
+        env.rawset("fixtures", fixtures);
+    }
+}
@@ -25,8 +25,9 @@ package se.krka.kahlua.interp;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import se.krka.kahlua.luaj.compiler.LuaCompiler;
 import se.krka.kahlua.vm.LuaState;
@@ -37,6 +38,7 @@ public class UnitTester {
     public static void main(String[] args) throws IOException {
         LuaState state = new LuaState();
         LuaCompiler.register(state);
+        TestFixtures.register(state);
 
         String run = null;//"table.lua";
 
@@ -44,7 +46,7 @@ public class UnitTester {
 
         for (File f : new File("resources/lua/tests").listFiles()) {
             if (run == null || run.equals(f.getName())) {
-                try (BufferedReader input = new BufferedReader(new FileReader(f))) {
+                try (BufferedReader input = Files.newBufferedReader(f.toPath(), StandardCharsets.UTF_8)) {
                     tests.rawset(f.getName(), LuaCompiler.loadis(input, f.getName(), state.getEnvironment()));
                 }
             }
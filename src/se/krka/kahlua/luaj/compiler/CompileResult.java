@@ -0,0 +1,69 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.luaj.compiler;
+
+import se.krka.kahlua.vm.LuaPrototype;
+
+/**
+ * The outcome of compiling one chunk with
+ * {@link LuaCompiler#compileAll(java.util.Map)}: either a prototype or the
+ * error message that compiling it produced.
+ */
+public final class CompileResult {
+
+    private final String name;
+    private final LuaPrototype prototype;
+    private final String error;
+
+    CompileResult(String name, LuaPrototype prototype, String error) {
+        this.name = name;
+        this.prototype = prototype;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSuccess() {
+        return prototype != null;
+    }
+
+    /**
+     * @return the compiled chunk, or null if it failed to compile
+     */
+    public LuaPrototype getPrototype() {
+        return prototype;
+    }
+
+    /**
+     * @return the compile error, or null if the chunk compiled
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? name : name + ": " + error;
+    }
+}
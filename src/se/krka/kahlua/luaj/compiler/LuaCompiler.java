@@ -27,9 +27,14 @@ import java.io.InputStreamReader;
 
 import java.io.Reader;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 import org.luaj.kahluafork.compiler.LexState;
 
@@ -73,7 +78,7 @@ public enum LuaCompiler implements JavaFunction {
     }
 
     public static LuaClosure loadis(InputStream inputStream, String name, LuaTable environment) throws IOException {
-        return loadis(new InputStreamReader(inputStream), name, environment);
+        return loadis(new InputStreamReader(inputStream, StandardCharsets.UTF_8), name, environment);
     }
 
     public static LuaClosure loadis(Reader reader, String name, LuaTable environment) throws IOException {
@@ -82,11 +87,56 @@ public enum LuaCompiler implements JavaFunction {
     }
 
     public static LuaClosure loadstring(String source, String name, LuaTable environment) throws IOException {
-        return loadis(new ByteArrayInputStream(source.getBytes("UTF-8")), name, environment);
+        BaseLib.luaAssert(name != null, "no name given the compilation unit");
+        return new LuaClosure(LexState.compile(source, name), environment);
     }
-    
+
     public static LuaPrototype compilestring(String source, String name) throws IOException {
-        Reader reader = new InputStreamReader(new ByteArrayInputStream(source.getBytes("UTF-8")), "UTF-8");
-        return LexState.compile(reader.read(), reader, name);
+        return LexState.compile(source, name);
+    }
+
+    /**
+     * Compiles many chunks at once on the common fork/join pool.
+     *
+     * @see #compileAll(Map, ForkJoinPool)
+     */
+    public static Map<String, CompileResult> compileAll(Map<String, String> sources) {
+        return compileAll(sources, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Compiles every source in the map, keyed by chunk name, as a separate
+     * task on the given pool and waits for all of them. A chunk that fails
+     * to compile does not affect the others; its error is in its result.
+     *
+     * @return the results keyed by chunk name, in the iteration order of
+     * sources
+     */
+    public static Map<String, CompileResult> compileAll(Map<String, String> sources, ForkJoinPool pool) {
+        Map<String, ForkJoinTask<CompileResult>> tasks = new LinkedHashMap<String, ForkJoinTask<CompileResult>>();
+        for (Map.Entry<String, String> entry : sources.entrySet()) {
+            final String name = entry.getKey();
+            final String source = entry.getValue();
+            tasks.put(name, pool.submit(new Callable<CompileResult>() {
+                @Override
+                public CompileResult call() {
+                    return compileChunk(source, name);
+                }
+            }));
+        }
+        Map<String, CompileResult> results = new LinkedHashMap<String, CompileResult>();
+        for (Map.Entry<String, ForkJoinTask<CompileResult>> entry : tasks.entrySet()) {
+            results.put(entry.getKey(), entry.getValue().join());
+        }
+        return results;
+    }
+
+    private static CompileResult compileChunk(String source, String name) {
+        try {
+            BaseLib.luaAssert(source != null, "No source given");
+            return new CompileResult(name, LexState.compile(source, name), null);
+        } catch (RuntimeException e) {
+            return new CompileResult(name, null, e.getMessage());
+        }
     }
 }
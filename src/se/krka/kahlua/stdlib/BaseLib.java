@@ -126,18 +126,16 @@ public enum BaseLib implements JavaFunction {
                     LuaTable t = (LuaTable) callFrame.get(0);
                     Object key = nArguments >= 2 ? callFrame.get(1) : null;
 
-                    Object nextKey = t.next(key);
-                    if (nextKey == null) {
+                    int index = t.nextIndex(key);
+                    if (index < 0) {
                         callFrame.setTop(1);
                         callFrame.set(0, null);
                         return 1;
                     }
 
-                    Object value = t.rawget(nextKey);
-
                     callFrame.setTop(2);
-                    callFrame.set(0, nextKey);
-                    callFrame.set(1, value);
+                    callFrame.set(0, t.keyAt(index));
+                    callFrame.set(1, t.valueAt(index));
                     return 2;
                 }
             },
@@ -163,7 +161,7 @@ public enum BaseLib implements JavaFunction {
 
                     callFrame.setTop(nReturnValues);
                     for (int b = 0; b < nReturnValues; b++) {
-                        callFrame.set(b, t.rawget((double) (i + b)));
+                        callFrame.set(b, t.rawget(i + b));
                     }
                     return nReturnValues;
                 }
@@ -203,6 +201,24 @@ public enum BaseLib implements JavaFunction {
                     }
                 }
             },
+    _IPAIRS0 { // the iterator ipairs in stdlib.lua uses for tables without a metatable
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    luaAssert(nArguments >= 2, "Not enough arguments");
+                    LuaTable t = (LuaTable) callFrame.get(0);
+                    int index = ((Double) callFrame.get(1)).intValue() + 1;
+                    Object value = t.rawget(index);
+                    if (value == null) {
+                        callFrame.setTop(1);
+                        callFrame.set(0, null);
+                        return 1;
+                    }
+                    callFrame.setTop(2);
+                    callFrame.set(0, toDouble(index));
+                    callFrame.set(1, value);
+                    return 2;
+                }
+            },
     _PRINT0 { // full implementation in stdlib.lua
                 @Override
                 public int call(LuaCallFrame callFrame, int nArguments) {
@@ -217,7 +233,7 @@ public enum BaseLib implements JavaFunction {
                     luaAssert(nArguments >= 1, "Not enough arguments");
                     Object arg1 = callFrame.get(0);
                     if ("#".equals(arg1)) {
-                        return callFrame.push((double) (nArguments - 1));
+                        return callFrame.push(toDouble(nArguments - 1));
                     }
                     int index = rawTonumber(arg1).intValue();
                     if (index >= 1 && index <= nArguments - 1) {
@@ -319,6 +335,72 @@ public enum BaseLib implements JavaFunction {
             };
     private static final Runtime RUNTIME = Runtime.getRuntime();
 
+    // longer strings are rarely table keys and are not worth interning
+    private static final int MAX_INTERN_LENGTH = 32;
+    private static final String[] LATIN1_CHARS = new String[256];
+
+    static {
+        for (int i = 0; i < LATIN1_CHARS.length; i++) {
+            LATIN1_CHARS[i] = String.valueOf((char) i).intern();
+        }
+    }
+
+    /**
+     * Returns the canonical (String.intern) instance of a short string, so
+     * that equal names from different chunks and message names are
+     * usually the same object. Tables and comparisons then
+     * match them by reference. Long strings are returned as they are.
+     */
+    public static String intern(String s) {
+        int len = s.length();
+        if (len == 1 && s.charAt(0) < LATIN1_CHARS.length) {
+            return LATIN1_CHARS[s.charAt(0)];
+        }
+        return len <= MAX_INTERN_LENGTH ? s.intern() : s;
+    }
+
+    /**
+     * @return the canonical one character string for c
+     */
+    public static String charString(char c) {
+        return c < LATIN1_CHARS.length ? LATIN1_CHARS[c] : String.valueOf(c);
+    }
+
+    // integral numbers in this range are boxed once and shared
+    private static final int DOUBLE_CACHE_LOW = -128;
+    private static final int DOUBLE_CACHE_HIGH = 1024;
+    private static final Double[] DOUBLE_CACHE = new Double[DOUBLE_CACHE_HIGH - DOUBLE_CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < DOUBLE_CACHE.length; i++) {
+            DOUBLE_CACHE[i] = Double.valueOf(i + DOUBLE_CACHE_LOW);
+        }
+    }
+
+    /**
+     * Boxes a number. Small integers (-128..1024) come from a shared cache,
+     * so that loop counters, indices, lengths and character codes do not
+     * allocate. -0 is not cached, since it is a different number to 1/x.
+     */
+    public static Double toDouble(double d) {
+        int i = (int) d;
+        if (i == d && i >= DOUBLE_CACHE_LOW && i <= DOUBLE_CACHE_HIGH
+                && (i != 0 || Double.doubleToRawLongBits(d) == 0L)) {
+            return DOUBLE_CACHE[i - DOUBLE_CACHE_LOW];
+        }
+        return d;
+    }
+
+    /**
+     * @see #toDouble(double)
+     */
+    public static Double toDouble(int i) {
+        if (i >= DOUBLE_CACHE_LOW && i <= DOUBLE_CACHE_HIGH) {
+            return DOUBLE_CACHE[i - DOUBLE_CACHE_LOW];
+        }
+        return (double) i;
+    }
+
     public String getName() {
         return this.name().toLowerCase();
     }
@@ -375,7 +457,8 @@ public enum BaseLib implements JavaFunction {
     }
 
     public static double getOptArgNumber(LuaCallFrame callFrame, int n, double default_) {
-        return (Double) getOptArg(callFrame, n, BaseLib.TYPE_NUMBER, default_);
+        Object out = getOptArg(callFrame, n, BaseLib.TYPE_NUMBER);
+        return out != null ? (Double) out : default_;
     }
 
     public static int getOptArgInteger(LuaCallFrame callFrame, int n, int default_) {
@@ -543,9 +626,9 @@ public enum BaseLib implements JavaFunction {
 
         try {
             if (radix == 10) {
-                return Double.valueOf(s);
+                return toDouble(Double.parseDouble(s));
             } else {
-                return (double) Integer.parseInt(s, radix);
+                return toDouble(Integer.parseInt(s, radix));
             }
         } catch (NumberFormatException e) {
             if ("nan".equalsIgnoreCase(s)) {
@@ -36,43 +36,14 @@ public enum CoroutineLib implements JavaFunction {
                 @Override
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     LuaClosure c = getFunction(callFrame, nArguments);
-
-                    LuaThread newThread = new LuaThread(callFrame.thread.state, callFrame.thread.environment);
-                    newThread.pushNewCallFrame(c, null, 0, 0, -1, true, true);
-                    return callFrame.push(newThread);
+                    return callFrame.push(newCoroutine(callFrame, c));
                 }
             },
     RESUME {
                 @Override
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     LuaThread t = getCoroutine(callFrame, nArguments);
-
-                    String status = getStatus(t, callFrame.thread);
-                    // equals on strings works because they are both constants
-                    BaseLib.luaAssert(status == "suspended", "Can not resume thread that is in status: " + status);
-
-                    t.parent = callFrame.thread;
-
-                    LuaCallFrame nextCallFrame = t.currentCallFrame();
-
-                    // Is this the first time the coroutine is resumed?
-                    if (nextCallFrame.nArguments == -1) {
-                        nextCallFrame.setTop(0);
-                    }
-
-                    // Copy arguments
-                    for (int i = 1; i < nArguments; i++) {
-                        nextCallFrame.push(callFrame.get(i));
-                    }
-
-                    // Is this the first time the coroutine is resumed?
-                    if (nextCallFrame.nArguments == -1) {
-                        nextCallFrame.nArguments = nArguments - 1;
-                        nextCallFrame.init();
-                    }
-
-                    callFrame.thread.state.currentThread = t;
-
+                    resume(callFrame, t, 1, nArguments);
                     return 0;
                 }
             },
@@ -104,8 +75,43 @@ public enum CoroutineLib implements JavaFunction {
                     // return nil if it's the root thread
                     return callFrame.push(t.parent == null ? null : t);
                 }
+            },
+    WRAP {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    LuaClosure c = getFunction(callFrame, nArguments);
+                    LuaThread t = newCoroutine(callFrame, c);
+                    t.wrapped = true;
+                    return callFrame.push(new WrappedCoroutine(t));
+                }
             };
 
+    /**
+     * The function returned by coroutine.wrap. Calling it resumes the
+     * coroutine directly. Since the thread is marked as wrapped, what it
+     * yields or returns arrives without a status in front, and an error in
+     * it carries on in the caller instead of being returned.
+     */
+    private static final class WrappedCoroutine implements JavaFunction {
+
+        private final LuaThread thread;
+
+        WrappedCoroutine(LuaThread thread) {
+            this.thread = thread;
+        }
+
+        @Override
+        public int call(LuaCallFrame callFrame, int nArguments) {
+            resume(callFrame, thread, 0, nArguments);
+            return 0;
+        }
+
+        @Override
+        public String toString() {
+            return "wrapped " + thread;
+        }
+    }
+
     public String getName() {
         return this.name().toLowerCase();
     }
@@ -123,6 +129,44 @@ public enum CoroutineLib implements JavaFunction {
         }
     }
 
+    private static LuaThread newCoroutine(LuaCallFrame callFrame, LuaClosure c) {
+        LuaThread newThread = new LuaThread(callFrame.thread.state, callFrame.thread.environment);
+        newThread.pushNewCallFrame(c, null, 0, 0, -1, true, true);
+        return newThread;
+    }
+
+    /**
+     * Switches to t, passing it the arguments from index firstArg on. The
+     * interpreter carries on in t once the calling Java function returns.
+     */
+    private static void resume(LuaCallFrame callFrame, LuaThread t, int firstArg, int nArguments) {
+        String status = getStatus(t, callFrame.thread);
+        // equals on strings works because they are both constants
+        BaseLib.luaAssert(status == "suspended", "Can not resume thread that is in status: " + status);
+
+        t.parent = callFrame.thread;
+
+        LuaCallFrame nextCallFrame = t.currentCallFrame();
+
+        // Is this the first time the coroutine is resumed?
+        if (nextCallFrame.nArguments == -1) {
+            nextCallFrame.setTop(0);
+        }
+
+        // Copy arguments
+        for (int i = firstArg; i < nArguments; i++) {
+            nextCallFrame.push(callFrame.get(i));
+        }
+
+        // Is this the first time the coroutine is resumed?
+        if (nextCallFrame.nArguments == -1) {
+            nextCallFrame.nArguments = nArguments - firstArg;
+            nextCallFrame.init();
+        }
+
+        callFrame.thread.state.currentThread = t;
+    }
+
     private static String getStatus(LuaThread t, LuaThread caller) {
         if (t.parent == null) {
             return t.isDead() ? "dead" : "suspended";
@@ -141,7 +185,9 @@ public enum CoroutineLib implements JavaFunction {
         LuaCallFrame nextCallFrame = parent.currentCallFrame();
 
         // Copy arguments
-        nextCallFrame.push(Boolean.TRUE);
+        if (!t.wrapped) {
+            nextCallFrame.push(Boolean.TRUE);
+        }
         for (int i = 0; i < nArguments; i++) {
             Object value = argsCallFrame.get(i);
             nextCallFrame.push(value);
@@ -0,0 +1,523 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.stdlib;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import se.krka.kahlua.stdlib.StringLib.MatchState;
+
+/**
+ * A Lua pattern compiled into a flat list of items, so that matching does not
+ * need to reparse the pattern string. Compiled patterns are immutable and are
+ * shared between all LuaStates through a small LRU cache.
+ */
+final class LuaPattern {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final Map<String, LuaPattern> cache = new LinkedHashMap<String, LuaPattern>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LuaPattern> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public static LuaPattern get(String pattern) {
+        synchronized (cache) {
+            LuaPattern compiled = cache.get(pattern);
+            if (compiled == null) {
+                compiled = new LuaPattern(pattern);
+                cache.put(pattern, compiled);
+            }
+            return compiled;
+        }
+    }
+
+    private static final char L_ESC = '%';
+
+    // Item kinds
+    private static final byte CHAR = 0, ANY = 1, CLASS = 2; // single character items, which can have quantifiers
+    private static final byte OPEN = 3, POSITION = 4, CLOSE = 5, BACKREF = 6, BALANCE = 7, FRONTIER = 8, END = 9;
+    private static final byte ERROR = 10; // reached a malformed part of the pattern; fails when matched
+
+    public final boolean anchor;
+    final int maxCaptures;
+    private final byte[] kinds;
+    private final char[] quantifiers; // '\0' if none, otherwise one of ?*+-
+    private final char[] chars; // the character for CHAR, the capture index for BACKREF, the opening character for BALANCE
+    private final char[] closers; // the closing character for BALANCE
+    private final CharClass[] classes; // for CLASS and FRONTIER
+    private final String error;
+
+    // Used to skip start positions which can not possibly match
+    private final String prefix;
+    private final CharClass firstClass;
+
+    private LuaPattern(String pattern) {
+        int len = pattern.length();
+        byte[] kinds = new byte[len + 1];
+        char[] quantifiers = new char[len + 1];
+        char[] chars = new char[len + 1];
+        char[] closers = new char[len + 1];
+        CharClass[] classes = new CharClass[len + 1];
+        String error = null;
+        int captures = 0;
+
+        int p = 0;
+        anchor = charAt(pattern, 0) == '^';
+        if (anchor) {
+            p++;
+        }
+        int n = 0;
+        while (p < len && pattern.charAt(p) != '\0' && error == null) {
+            char c = pattern.charAt(p);
+            if (c == '(') {
+                captures++;
+                if (charAt(pattern, p + 1) == ')') {
+                    kinds[n++] = POSITION;
+                    p += 2;
+                } else {
+                    kinds[n++] = OPEN;
+                    p++;
+                }
+                continue;
+            } else if (c == ')') {
+                kinds[n++] = CLOSE;
+                p++;
+                continue;
+            } else if (c == L_ESC) {
+                char d = charAt(pattern, p + 1);
+                if (d == 'b') {
+                    if (charAt(pattern, p + 2) == '\0' || charAt(pattern, p + 3) == '\0') {
+                        error = "unbalanced pattern";
+                        break;
+                    }
+                    kinds[n] = BALANCE;
+                    chars[n] = pattern.charAt(p + 2);
+                    closers[n++] = pattern.charAt(p + 3);
+                    p += 4;
+                    continue;
+                } else if (d == 'f') {
+                    p += 2;
+                    if (charAt(pattern, p) != '[') {
+                        error = "missing '[' after '%f' in pattern";
+                        break;
+                    }
+                    int ep = classEnd(pattern, p);
+                    if (ep < 0) {
+                        error = "malformed pattern (missing ']')";
+                        break;
+                    }
+                    kinds[n] = FRONTIER;
+                    classes[n++] = new CharClass(pattern, p, ep);
+                    p = ep;
+                    continue;
+                } else if (d >= '0' && d <= '9') {
+                    kinds[n] = BACKREF;
+                    chars[n++] = (char) (d - '1');
+                    p += 2;
+                    continue;
+                }
+            } else if (c == '$' && charAt(pattern, p + 1) == '\0') {
+                kinds[n++] = END;
+                p++;
+                continue;
+            }
+
+            // it is a pattern item
+            int ep = classEnd(pattern, p);
+            if (ep < 0) {
+                error = ep == -1 ? "malformed pattern (ends with '%')" : "malformed pattern (missing ']')";
+                break;
+            }
+            if (c == '.') {
+                kinds[n] = ANY;
+            } else if (c == L_ESC || c == '[') {
+                kinds[n] = CLASS;
+                classes[n] = new CharClass(pattern, p, ep);
+            } else {
+                kinds[n] = CHAR;
+                chars[n] = c;
+            }
+            char q = charAt(pattern, ep);
+            if (q == '?' || q == '*' || q == '+' || q == '-') {
+                quantifiers[n] = q;
+                ep++;
+            }
+            n++;
+            p = ep;
+        }
+        if (error != null) {
+            kinds[n++] = ERROR;
+        }
+
+        this.kinds = new byte[n];
+        this.quantifiers = new char[n];
+        this.chars = new char[n];
+        this.closers = new char[n];
+        this.classes = new CharClass[n];
+        System.arraycopy(kinds, 0, this.kinds, 0, n);
+        System.arraycopy(quantifiers, 0, this.quantifiers, 0, n);
+        System.arraycopy(chars, 0, this.chars, 0, n);
+        System.arraycopy(closers, 0, this.closers, 0, n);
+        System.arraycopy(classes, 0, this.classes, 0, n);
+        this.error = error;
+        this.maxCaptures = Math.min(captures, StringLib.LUA_MAXCAPTURES);
+
+        // find out what any match has to start with
+        StringBuilder pre = new StringBuilder();
+        CharClass first = null;
+        for (int i = 0; i < n; i++) {
+            byte kind = this.kinds[i];
+            if (kind == OPEN || kind == POSITION || kind == CLOSE) {
+                continue;
+            }
+            if (kind == CHAR && this.quantifiers[i] == '\0') {
+                pre.append(this.chars[i]);
+                continue;
+            }
+            if (pre.length() == 0 && kind == CLASS && (this.quantifiers[i] == '\0' || this.quantifiers[i] == '+')) {
+                first = this.classes[i];
+            }
+            break;
+        }
+        this.prefix = pre.length() > 0 ? pre.toString() : null;
+        this.firstClass = first;
+    }
+
+    private static char charAt(String s, int i) {
+        return i < s.length() ? s.charAt(i) : '\0';
+    }
+
+    // returns the index after the single character class at p, -1 for a trailing '%', or -2 for a missing ']'
+    private static int classEnd(String pattern, int p) {
+        switch (charAt(pattern, p++)) {
+            case L_ESC: {
+                if (charAt(pattern, p) == '\0') {
+                    return -1;
+                }
+                return p + 1;
+            }
+            case '[': {
+                if (charAt(pattern, p) == '^') {
+                    p++;
+                }
+                do { // look for a `]'
+                    if (charAt(pattern, p) == '\0') {
+                        return -2;
+                    }
+                    if (charAt(pattern, p++) == L_ESC && charAt(pattern, p) != '\0') {
+                        p++;  // skip escapes (e.g. `%]')
+                    }
+                } while (charAt(pattern, p) != ']');
+                return p + 1;
+            }
+            default: {
+                return p;
+            }
+        }
+    }
+
+    /**
+     * Finds the first match starting at or after init.
+     *
+     * @return the index where the match starts, or -1 if there is no match.
+     * The end of the match is stored in ms.matchEnd.
+     */
+    public int find(MatchState ms, int init) {
+        String src = ms.src;
+        int end = ms.endIndex;
+        int s = init;
+        while (true) {
+            if (!anchor) {
+                if (prefix != null) {
+                    s = src.indexOf(prefix, s);
+                    if (s < 0) {
+                        return -1;
+                    }
+                } else if (firstClass != null) {
+                    while (s < end && !firstClass.matches(src.charAt(s))) {
+                        s++;
+                    }
+                    if (s >= end) {
+                        return -1;
+                    }
+                }
+            }
+            ms.level = 0;
+            int e = match(ms, s, 0);
+            if (e >= 0) {
+                ms.matchEnd = e;
+                return s;
+            }
+            if (anchor || s >= end) {
+                return -1;
+            }
+            s++;
+        }
+    }
+
+    /**
+     * Tries to match the pattern at exactly the index s, ignoring any anchor.
+     *
+     * @return the end index of the match, or -1 if there is no match
+     */
+    public int match(MatchState ms, int s) {
+        ms.level = 0;
+        return match(ms, s, 0);
+    }
+
+    private int match(MatchState ms, int s, int pi) {
+        String src = ms.src;
+        int end = ms.endIndex;
+        while (true) {
+            if (pi == kinds.length) {
+                return s; // end of pattern: match succeeded
+            }
+            switch (kinds[pi]) {
+                case OPEN:
+                    return startCapture(ms, s, pi + 1, StringLib.CAP_UNFINISHED);
+                case POSITION:
+                    return startCapture(ms, s, pi + 1, StringLib.CAP_POSITION);
+                case CLOSE:
+                    return endCapture(ms, s, pi + 1);
+                case BALANCE:
+                    s = matchBalance(ms, s, chars[pi], closers[pi]);
+                    if (s < 0) {
+                        return -1;
+                    }
+                    pi++;
+                    continue;
+                case FRONTIER: {
+                    char previous = s == 0 ? '\0' : src.charAt(s - 1);
+                    char current = s < end ? src.charAt(s) : '\0';
+                    if (classes[pi].matches(previous) || !classes[pi].matches(current)) {
+                        return -1;
+                    }
+                    pi++;
+                    continue;
+                }
+                case BACKREF:
+                    s = matchCapture(ms, s, chars[pi]);
+                    if (s < 0) {
+                        return -1;
+                    }
+                    pi++;
+                    continue;
+                case END:
+                    return s == end ? s : -1;
+                case ERROR:
+                    throw new RuntimeException(error);
+            }
+
+            // it is a pattern item
+            boolean m = s < end && singleMatch(src.charAt(s), pi);
+            switch (quantifiers[pi]) {
+                case '?': { // optional
+                    int res;
+                    if (m && (res = match(ms, s + 1, pi + 1)) >= 0) {
+                        return res;
+                    }
+                    pi++;
+                    continue;
+                }
+                case '*': // 0 or more repetitions
+                    return maxExpand(ms, s, pi);
+                case '+': // 1 or more repetitions
+                    return m ? maxExpand(ms, s + 1, pi) : -1;
+                case '-': // 0 or more repetitions (minimum)
+                    return minExpand(ms, s, pi);
+                default:
+                    if (!m) {
+                        return -1;
+                    }
+                    s++;
+                    pi++;
+            }
+        }
+    }
+
+    private boolean singleMatch(char c, int pi) {
+        switch (kinds[pi]) {
+            case ANY:
+                return true;
+            case CHAR:
+                return chars[pi] == c;
+            default:
+                return classes[pi].matches(c);
+        }
+    }
+
+    private int maxExpand(MatchState ms, int s, int pi) {
+        String src = ms.src;
+        int i = 0;  // counts maximum expand for item
+        while (s + i < ms.endIndex && singleMatch(src.charAt(s + i), pi)) {
+            i++;
+        }
+        // keeps trying to match with the maximum repetitions
+        while (i >= 0) {
+            int res = match(ms, s + i, pi + 1);
+            if (res >= 0) {
+                return res;
+            }
+            i--;  // else didn't match; reduce 1 repetition to try again
+        }
+        return -1;
+    }
+
+    private int minExpand(MatchState ms, int s, int pi) {
+        while (true) {
+            int res = match(ms, s, pi + 1);
+            if (res >= 0) {
+                return res;
+            } else if (s < ms.endIndex && singleMatch(ms.src.charAt(s), pi)) {
+                s++;  // try with one more repetition
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    private int startCapture(MatchState ms, int s, int pi, int what) {
+        int level = ms.level;
+        BaseLib.luaAssert(level < StringLib.LUA_MAXCAPTURES, "too many captures");
+
+        ms.captureInit[level] = s;
+        ms.captureLen[level] = what;
+        ms.level = level + 1;
+        int res = match(ms, s, pi);
+        if (res < 0) {
+            ms.level--;  // undo capture
+        }
+        return res;
+    }
+
+    private int endCapture(MatchState ms, int s, int pi) {
+        int l = captureToClose(ms);
+        ms.captureLen[l] = s - ms.captureInit[l];  // close capture
+        int res = match(ms, s, pi);
+        if (res < 0) {
+            ms.captureLen[l] = StringLib.CAP_UNFINISHED;  // undo capture
+        }
+        return res;
+    }
+
+    private static int captureToClose(MatchState ms) {
+        int level = ms.level;
+        for (level--; level >= 0; level--) {
+            if (ms.captureLen[level] == StringLib.CAP_UNFINISHED) {
+                return level;
+            }
+        }
+        throw new RuntimeException("invalid pattern capture");
+    }
+
+    private static int matchCapture(MatchState ms, int s, int l) {
+        BaseLib.luaAssert(l < ms.level && ms.captureLen[l] != StringLib.CAP_UNFINISHED, "invalid capture index");
+        int len = ms.captureLen[l];
+        if (ms.endIndex - s >= len && ms.src.regionMatches(ms.captureInit[l], ms.src, s, len)) {
+            return s + len;
+        }
+        return -1;
+    }
+
+    private static int matchBalance(MatchState ms, int s, char b, char e) {
+        String src = ms.src;
+        if (s >= ms.endIndex || src.charAt(s) != b) {
+            return -1;
+        }
+        int cont = 1;
+        while (++s < ms.endIndex) {
+            char c = src.charAt(s);
+            if (c == e) {
+                if (--cont == 0) {
+                    return s + 1;
+                }
+            } else if (c == b) {
+                cont++;
+            }
+        }
+        return -1;  // string ends out of balance
+    }
+
+    /**
+     * A single character class, either an escape such as %a or a bracket
+     * class such as [^%s,]. Membership of the first 256 characters is
+     * precomputed.
+     */
+    private static final class CharClass {
+
+        private final long[] bits = new long[4];
+        private final String pattern;
+        private final int start, end;
+
+        CharClass(String pattern, int start, int end) {
+            this.pattern = pattern;
+            this.start = start;
+            this.end = end;
+            for (char c = 0; c < 256; c++) {
+                if (compute(c)) {
+                    bits[c >> 6] |= 1L << c;
+                }
+            }
+        }
+
+        boolean matches(char c) {
+            if (c < 256) {
+                return (bits[c >> 6] & (1L << c)) != 0;
+            }
+            return compute(c);
+        }
+
+        private boolean compute(char c) {
+            if (pattern.charAt(start) == L_ESC) {
+                return StringLib.matchClass(pattern.charAt(start + 1), c);
+            }
+            // bracket class from start ('[') to end - 1 (']')
+            int p = start;
+            int ec = end - 1;
+            boolean sig = true;
+            if (charAt(pattern, p + 1) == '^') {
+                sig = false;
+                p++;  // skip the `^'
+            }
+            while (++p < ec) {
+                char pc = pattern.charAt(p);
+                if (pc == L_ESC) {
+                    p++;
+                    if (StringLib.matchClass(charAt(pattern, p), c)) {
+                        return sig;
+                    }
+                } else if (charAt(pattern, p + 1) == '-' && p + 2 < ec) {
+                    p += 2;
+                    if (pc <= c && c <= pattern.charAt(p)) {
+                        return sig;
+                    }
+                } else if (pc == c) {
+                    return sig;
+                }
+            }
+            return !sig;
+        }
+    }
+}
@@ -38,7 +38,7 @@ public enum MathLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     BaseLib.luaAssert(nArguments >= 1, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
-                    return callFrame.push(Math.abs(x));
+                    return callFrame.push(BaseLib.toDouble(Math.abs(x)));
                 }
             },
     CEIL {
@@ -46,7 +46,7 @@ public enum MathLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     BaseLib.luaAssert(nArguments >= 1, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
-                    return callFrame.push(Math.ceil(x));
+                    return callFrame.push(BaseLib.toDouble(Math.ceil(x)));
                 }
             },
     FLOOR {
@@ -54,7 +54,7 @@ public enum MathLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     BaseLib.luaAssert(nArguments >= 1, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
-                    return callFrame.push(Math.floor(x));
+                    return callFrame.push(BaseLib.toDouble(Math.floor(x)));
                 }
             },
     MODF {
@@ -79,7 +79,7 @@ public enum MathLib implements JavaFunction {
                         intPart = -intPart;
                         fracPart = -fracPart;
                     }
-                    return callFrame.push(intPart, fracPart);
+                    return callFrame.push(BaseLib.toDouble(intPart), fracPart);
                 }
             },
     FMOD {
@@ -106,7 +106,33 @@ public enum MathLib implements JavaFunction {
                             res = -res;
                         }
                     }
-                    return callFrame.push(res);
+                    return callFrame.push(BaseLib.toDouble(res));
+                }
+            },
+    MAX {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    Double max = getNumberArg(callFrame, 1);
+                    for (int i = 2; i <= nArguments; i++) {
+                        Double v = getNumberArg(callFrame, i);
+                        if (max < v) {
+                            max = v;
+                        }
+                    }
+                    return callFrame.push(max);
+                }
+            },
+    MIN {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    Double min = getNumberArg(callFrame, 1);
+                    for (int i = 2; i <= nArguments; i++) {
+                        Double v = getNumberArg(callFrame, i);
+                        if (min > v) {
+                            min = v;
+                        }
+                    }
+                    return callFrame.push(min);
                 }
             },
     RANDOM {
@@ -128,7 +154,7 @@ public enum MathLib implements JavaFunction {
                         tmp = getDoubleArg(callFrame, 2);
                         n = (int) tmp;
                     }
-                    return callFrame.push((double) (m + random.nextInt(n - m + 1)));
+                    return callFrame.push(BaseLib.toDouble(m + random.nextInt(n - m + 1)));
                 }
             },
     RANDOMSEED {
@@ -179,7 +205,7 @@ public enum MathLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     BaseLib.luaAssert(nArguments >= 1, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
-                    return callFrame.push(Math.toDegrees(x));
+                    return callFrame.push(BaseLib.toDouble(Math.toDegrees(x)));
                 }
             },
     RAD {
@@ -253,7 +279,7 @@ public enum MathLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     BaseLib.luaAssert(nArguments >= 1, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
-                    return callFrame.push(Math.sqrt(x));
+                    return callFrame.push(BaseLib.toDouble(Math.sqrt(x)));
                 }
             },
     EXP {
@@ -270,7 +296,7 @@ public enum MathLib implements JavaFunction {
                     BaseLib.luaAssert(nArguments >= 2, "Not enough arguments");
                     double x = getDoubleArg(callFrame, 1);
                     double y = getDoubleArg(callFrame, 2);
-                    return callFrame.push(pow(x, y));
+                    return callFrame.push(BaseLib.toDouble(pow(x, y)));
                 }
             },
     LOG {
@@ -306,7 +332,7 @@ public enum MathLib implements JavaFunction {
                         int div = 1 << ((int) e);
                         m = x / div;
                     }
-                    return callFrame.push(m, e);
+                    return callFrame.push(m, BaseLib.toDouble(e));
                 }
             },
     LDEXP {
@@ -325,7 +351,7 @@ public enum MathLib implements JavaFunction {
                         ret = m * (1 << e);
                     }
 
-                    return callFrame.push(ret);
+                    return callFrame.push(BaseLib.toDouble(ret));
                 }
             };
 
@@ -351,6 +377,11 @@ public enum MathLib implements JavaFunction {
     }
 
     protected double getDoubleArg(LuaCallFrame callFrame, int n) {
+        return getNumberArg(callFrame, n);
+    }
+
+    // the argument as it was passed, so that it can be returned without boxing it again
+    protected Double getNumberArg(LuaCallFrame callFrame, int n) {
         return (Double) BaseLib.getArg(callFrame, n, BaseLib.TYPE_NUMBER, getName());
     }
 
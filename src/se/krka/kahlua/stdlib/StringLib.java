@@ -92,7 +92,7 @@ public enum StringLib implements JavaFunction {
                     int offset = ii - 1;
                     for (int i = 0; i < nReturns; i++) {
                         char c = s.charAt(offset + i);
-                        callFrame.set(i, (double) c);
+                        callFrame.set(i, BaseLib.toDouble(c));
                     }
                     return nReturns;
                 }
@@ -465,12 +465,14 @@ public enum StringLib implements JavaFunction {
     CHAR {
                 @Override
                 public int call(LuaCallFrame callFrame, int nArguments) {
-                    StringBuilder sb = new StringBuilder();
+                    if (nArguments == 1) {
+                        return callFrame.push(BaseLib.charString((char) getDoubleArg(callFrame, 1).intValue()));
+                    }
+                    char[] chars = new char[nArguments];
                     for (int i = 0; i < nArguments; i++) {
-                        int num = getDoubleArg(callFrame, i + 1).intValue();
-                        sb.append((char) num);
+                        chars[i] = (char) getDoubleArg(callFrame, i + 1).intValue();
                     }
-                    return callFrame.push(sb.toString());
+                    return callFrame.push(new String(chars));
                 }
             },
     SUB {
@@ -502,7 +504,11 @@ public enum StringLib implements JavaFunction {
                     if (istart > iend) {
                         return callFrame.push("");
                     }
-                    res = s.substring(istart - 1, iend);
+                    if (istart == iend) {
+                        res = BaseLib.charString(s.charAt(istart - 1));
+                    } else {
+                        res = s.substring(istart - 1, iend);
+                    }
 
                     return callFrame.push(res);
                 }
@@ -523,34 +529,21 @@ public enum StringLib implements JavaFunction {
                     // if i isn't supplied, we want to substitute all occurrences of the pattern
                     int maxSubstitutions = (num == null) ? Integer.MAX_VALUE : num.intValue();
 
-                    StringPointer pattern = new StringPointer(pTemp);
-                    StringPointer src = new StringPointer(srcTemp);
-
-                    boolean anchor = false;
-                    if (pattern.getChar() == '^') {
-                        anchor = true;
-                        pattern.postIncrString(1);
-                    }
+                    LuaPattern pattern = LuaPattern.get(pTemp);
 
                     String replType = BaseLib.type(repl);
                     if (!(replType == BaseLib.TYPE_FUNCTION || replType == BaseLib.TYPE_STRING || replType == BaseLib.TYPE_TABLE)) {
                         BaseLib.fail(("string/function/table expected, got " + replType));
                     }
 
-                    MatchState ms = new MatchState();
-                    ms.callFrame = callFrame;
-                    ms.src_init = src.getClone();
-                    ms.endIndex = src.length();
-
                     GSubPauseState gs = new GSubPauseState();
-                    gs.ms = ms;
+                    gs.ms = new MatchState(srcTemp, pattern);
                     gs.maxSubstitutions = maxSubstitutions;
                     gs.n = 0;
                     gs.b = new StringBuilder();
-                    gs.src = src;
+                    gs.src = 0;
                     gs.pattern = pattern;
                     gs.repl = repl;
-                    gs.anchor = anchor;
 
                     return callFrame.push(gs);
                 }
@@ -566,16 +559,55 @@ public enum StringLib implements JavaFunction {
                 public int call(LuaCallFrame callFrame, int nArguments) {
                     return findAux(callFrame, false);
                 }
+            },
+    GMATCH {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    String s = getStringArg(callFrame, 1);
+                    LuaPattern pattern = LuaPattern.get(getStringArg(callFrame, 2));
+                    return callFrame.push(new GMatchState(new MatchState(s, pattern), pattern));
+                }
             };
 
+    private static class GMatchState implements JavaFunction {
+
+        private final MatchState ms;
+        private final LuaPattern pattern;
+        private int pos = 0;
+
+        GMatchState(MatchState ms, LuaPattern pattern) {
+            this.ms = ms;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public int call(LuaCallFrame callFrame, int nArguments) {
+            if (pos <= ms.endIndex) {
+                int start = pattern.find(ms, pos);
+                if (start >= 0) {
+                    int e = ms.matchEnd;
+                    pos = e == start ? e + 1 : e; // empty match? go at least one position
+                    return push_captures(callFrame, ms, start, e, true);
+                }
+                pos = ms.endIndex + 1;
+            }
+            return callFrame.pushNil();
+        }
+
+        @Override
+        public String toString() {
+            return "string.gmatch iterator";
+        }
+    }
+
     private static class GSubPauseState implements JavaFunction {
 
         private MatchState ms;
         private int n, maxSubstitutions;
         private StringBuilder b;
-        private StringPointer pattern, src, e;
+        private LuaPattern pattern;
+        private int src, e;
         private Object repl;
-        private boolean anchor;
         private boolean phase = false;
 
         @Override
@@ -588,12 +620,12 @@ public enum StringLib implements JavaFunction {
                     return 0;
                 }
             }
+            String source = ms.src;
             while (n < maxSubstitutions || phase) {
                 if (!phase) { // The algorithm is split in two pieces, so that we can pause half-way through.
                     phase = true;
-                    ms.level = 0;
-                    e = match(ms, src, pattern);
-                    if (e != null) {
+                    e = pattern.match(ms, src);
+                    if (e >= 0) {
                         n++;
                         String match_if_call_needed = addValue(ms, repl, b, src, e);
                         if (match_if_call_needed != null) {
@@ -602,42 +634,38 @@ public enum StringLib implements JavaFunction {
                     }
                 } else {
                     phase = false;
-                    if (e != null && e.getIndex() > src.getIndex()) { // non empty match?
-                        src.setIndex(e.getIndex());  // skip it 
-                    } else if (src.getIndex() < ms.endIndex) {
-                        b.append(src.postIncrString(1));
+                    if (e > src) { // non empty match?
+                        src = e;  // skip it
+                    } else if (src < ms.endIndex) {
+                        b.append(source.charAt(src++));
                     } else {
                         break;
                     }
 
-                    if (anchor) {
+                    if (pattern.anchor) {
                         break;
                     }
                 }
             }
-            String out = b.append(src.getString()).toString();
-            return callFrame.push(true, out, (double) n);
+            String out = b.append(source, src, source.length()).toString();
+            return callFrame.push(true, out, BaseLib.toDouble(n));
         }
 
-        private String addValue(MatchState ms, Object repl, StringBuilder b, StringPointer src, StringPointer e) {
+        private String addValue(MatchState ms, Object repl, StringBuilder b, int s, int e) {
             String type = BaseLib.type(repl);
             if (type == BaseLib.TYPE_NUMBER || type == BaseLib.TYPE_STRING) {
-                b.append(addString(ms, repl, src, e));
+                addString(ms, BaseLib.tostring_undynamic(repl), b, s, e);
             } else {
-                String match = src.getString().substring(0, e.getIndex() - src.getIndex());
-                Object[] captures = ms.getCaptures();
-                if (captures != null) {
-                    match = BaseLib.rawTostring(captures[0]);
-                }
+                String match = BaseLib.rawTostring(ms.getCapture(0, s, e));
                 if (type == BaseLib.TYPE_TABLE) {
                     Object res = ((LuaTable) repl).rawget(match);
                     if (res == null) {
-                        b.append(BaseLib.rawTostring(match));
+                        b.append(match);
                     } else {
                         b.append(BaseLib.rawTostring(res));
                     }
                 } else if (type != BaseLib.TYPE_FUNCTION) {
-                    b.append(BaseLib.rawTostring(match));
+                    b.append(match);
                 } else {
                     return match;
                 }
@@ -659,10 +687,10 @@ public enum StringLib implements JavaFunction {
         }
     }
 
-    private static final int LUA_MAXCAPTURES = 32;
+    static final int LUA_MAXCAPTURES = 32;
     private static final char L_ESC = '%';
-    private static final int CAP_UNFINISHED = (-1);
-    private static final int CAP_POSITION = (-2);
+    static final int CAP_UNFINISHED = (-1);
+    static final int CAP_POSITION = (-2);
 
     public static void register(LuaState state) {
         LuaTable string = new LuaTable();
@@ -875,164 +903,54 @@ public enum StringLib implements JavaFunction {
 
     /* Pattern Matching
      * Original code that this was adapted from is copyright (c) 2008 groundspeak, inc.
+     * The patterns themselves are compiled and matched by LuaPattern.
      */
     public static class MatchState {
 
-        public MatchState() {
-            capture = new Capture[LUA_MAXCAPTURES];
-            for (int i = 0; i < LUA_MAXCAPTURES; i++) {
-                capture[i] = new Capture();
-            }
+        public MatchState(String src, LuaPattern pattern) {
+            this.src = src;
+            this.endIndex = src.length();
+            captureInit = new int[pattern.maxCaptures];
+            captureLen = new int[pattern.maxCaptures];
         }
-        public StringPointer src_init;  /* init of source string */
+        public final String src;  /* source string */
 
-        public int endIndex; /* end (`\0') of source string */
+        public final int endIndex; /* end (`\0') of source string */
 
-        public LuaCallFrame callFrame;
         public int level;  /* total number of captures (finished or unfinished) */
 
-        public Capture[] capture;
-
-        public static class Capture {
+        public int matchEnd; /* end of the last match found by LuaPattern.find */
 
-            public StringPointer init;
-            public int len;
-        }
+        public final int[] captureInit, captureLen;
 
-        public Object[] getCaptures() {
-            if (level <= 0) {
-                return null;
-            }
-            Object[] caps = new String[level];
-            for (int i = 0; i < level; i++) {
-                if (capture[i].len == CAP_POSITION) {
-                    caps[i] = (double) src_init.length() - capture[i].init.length() + 1;
+        /**
+         * Gets capture i of a match from s to e. If there are no captures,
+         * capture 0 is the whole match.
+         */
+        public Object getCapture(int i, int s, int e) {
+            if (i >= level) {
+                if (i == 0) { // level == 0, too
+                    return src.substring(s, e);
                 } else {
-                    caps[i] = capture[i].init.getString().substring(0, capture[i].len);
+                    throw new RuntimeException("invalid capture index");
                 }
             }
-            return caps;
-        }
-    }
-
-    public static class StringPointer {
-
-        private String string;
-        private int index = 0;
-
-        public StringPointer(String original) {
-            this.string = original;
-        }
-
-        public StringPointer(String original, int index) {
-            this.string = original;
-            this.index = index;
-        }
-
-        public StringPointer getClone() {
-            StringPointer newSP = new StringPointer(this.getOriginalString(), this.getIndex());
-            return newSP;
-        }
-
-        public int getIndex() {
-            return index;
-        }
-
-        public void setIndex(int ind) {
-            index = ind;
-        }
-
-        public String getOriginalString() {
-            return string;
-        }
-
-        public void setOriginalString(String orStr) {
-            string = orStr;
-        }
-
-        public String getString() {
-            return getString(0);
-        }
-
-        public String getString(int i) {
-            return string.substring(index + i, string.length());
-        }
-
-        public char getChar() {
-            return getChar(0);
-        }
-
-        public char getChar(int strIndex) {
-            if (index + strIndex >= string.length()) {
-                return '\0';
-            } else {
-                return string.charAt(index + strIndex);
-            }
-        }
-
-        public int length() {
-            return string.length() - index;
-        }
-
-        public int postIncrStringI(int num) {
-            int oldIndex = index;
-            index += num;
-            return oldIndex;
-        }
-
-        public int preIncrStringI(int num) {
-            index += num;
-            return index;
-        }
-
-        public char postIncrString(int num) {
-            char c = getChar();
-            index += num;
-            return c;
-        }
-
-        public char preIncrString(int num) {
-            index += num;
-            return getChar();
-        }
-
-        public int compareTo(StringPointer cmp, int len) {
-            return this.string.substring(this.index, this.index + len).compareTo(
-                    cmp.string.substring(cmp.index, cmp.index + len));
-        }
-    }
-
-    private static Object push_onecapture(MatchState ms, int i, StringPointer s, StringPointer e) {
-        if (i >= ms.level) {
-            if (i == 0) { // ms->level == 0, too
-                String res = s.string.substring(s.index, e.index);
-                ms.callFrame.push(res);
-                return res;
-            } else {
-                throw new RuntimeException("invalid capture index");
-            }
-        } else {
-            int l = ms.capture[i].len;
+            int l = captureLen[i];
             if (l == CAP_UNFINISHED) {
                 throw new RuntimeException("unfinished capture");
             } else if (l == CAP_POSITION) {
-                Double res = (double) ms.src_init.length() - ms.capture[i].init.length() + 1;
-                ms.callFrame.push(res);
-                return res;
+                return BaseLib.toDouble(captureInit[i] + 1);
             } else {
-                int index = ms.capture[i].init.index;
-                String res = ms.capture[i].init.string.substring(index, index + l);
-                ms.callFrame.push(res);
-                return res;
+                return src.substring(captureInit[i], captureInit[i] + l);
             }
         }
     }
 
-    private static int push_captures(MatchState ms, StringPointer s, StringPointer e) {
-        int nlevels = (ms.level == 0 && s != null) ? 1 : ms.level;
+    private static int push_captures(LuaCallFrame callFrame, MatchState ms, int s, int e, boolean wholeIfNone) {
+        int nlevels = (ms.level == 0 && wholeIfNone) ? 1 : ms.level;
         BaseLib.luaAssert(nlevels <= LUA_MAXCAPTURES, "too many captures");
         for (int i = 0; i < nlevels; i++) {
-            push_onecapture(ms, i, s, e);
+            callFrame.push(ms.getCapture(i, s, e));
         }
         return nlevels;  // number of strings pushed
     }
@@ -1068,347 +986,24 @@ public enum StringLib implements JavaFunction {
             // do a plain search
             int pos = source.indexOf(pattern, init);
             if (pos > -1) {
-                return callFrame.push((double) (pos + 1), (double) (pos + pattern.length()));
+                return callFrame.push(BaseLib.toDouble(pos + 1), BaseLib.toDouble(pos + pattern.length()));
             }
         } else {
-            StringPointer s = new StringPointer(source);
-            StringPointer p = new StringPointer(pattern);
-
-            MatchState ms = new MatchState();
-            boolean anchor = false;
-            if (p.getChar() == '^') {
-                anchor = true;
-                p.postIncrString(1);
-            }
-            StringPointer s1 = s.getClone();
-            s1.postIncrString(init);
-
-            ms.callFrame = callFrame;
-            ms.src_init = s.getClone();
-            ms.endIndex = s.getString().length();
-            do {
-                StringPointer res;
-                ms.level = 0;
-                if ((res = match(ms, s1, p)) != null) {
-                    if (find) {
-                        return callFrame.push((double) s.length() - s1.length() + 1, (double) s.length() - res.length()) + push_captures(ms, null, null);
-                    } else {
-                        return push_captures(ms, s1, res);
-                    }
-                }
-
-            } while (s1.postIncrStringI(1) < ms.endIndex && !anchor);
-        }
-        return callFrame.pushNil();  // not found
-    }
-
-    private static StringPointer startCapture(MatchState ms, StringPointer s, StringPointer p, int what) {
-        StringPointer res;
-        int level = ms.level;
-        BaseLib.luaAssert(level < LUA_MAXCAPTURES, "too many captures");
-
-        ms.capture[level].init = s.getClone();
-        ms.capture[level].init.setIndex(s.getIndex());
-        ms.capture[level].len = what;
-        ms.level = level + 1;
-        if ((res = match(ms, s, p)) == null) /* match failed? */ {
-            ms.level--;  /* undo capture */
-
-        }
-        return res;
-    }
-
-    private static int captureToClose(MatchState ms) {
-        int level = ms.level;
-        for (level--; level >= 0; level--) {
-            if (ms.capture[level].len == CAP_UNFINISHED) {
-                return level;
-            }
-        }
-        throw new RuntimeException("invalid pattern capture");
-    }
-
-    private static StringPointer endCapture(MatchState ms, StringPointer s, StringPointer p) {
-        int l = captureToClose(ms);
-        StringPointer res;
-        ms.capture[l].len = ms.capture[l].init.length() - s.length();  /* close capture */
-
-        if ((res = match(ms, s, p)) == null) /* match failed? */ {
-            ms.capture[l].len = CAP_UNFINISHED;  /* undo capture */
-
-        }
-        return res;
-    }
-
-    private static int checkCapture(MatchState ms, int l) {
-        l -= '1'; // convert chars 1-9 to actual ints 1-9
-        BaseLib.luaAssert(l < 0 || l >= ms.level || ms.capture[l].len == CAP_UNFINISHED,
-                "invalid capture index");
-        return l;
-    }
-
-    private static StringPointer matchCapture(MatchState ms, StringPointer s, int l) {
-        int len;
-        l = checkCapture(ms, l);
-        len = ms.capture[l].len;
-        if ((ms.endIndex - s.length()) >= len && ms.capture[l].init.compareTo(s, len) == 0) {
-            StringPointer sp = s.getClone();
-            sp.postIncrString(len);
-            return sp;
-        } else {
-            return null;
-        }
-    }
-
-    private static StringPointer matchBalance(MatchState ms, StringPointer ss, StringPointer p) {
-
-        BaseLib.luaAssert(!(p.getChar() == 0 || p.getChar(1) == 0), "unbalanced pattern");
-
-        StringPointer s = ss.getClone();
-        if (s.getChar() != p.getChar()) {
-            return null;
-        } else {
-            int b = p.getChar();
-            int e = p.getChar(1);
-            int cont = 1;
-
-            while (s.preIncrStringI(1) < ms.endIndex) {
-                if (s.getChar() == e) {
-                    if (--cont == 0) {
-                        StringPointer sp = s.getClone();
-                        sp.postIncrString(1);
-                        return sp;
-                    }
-                } else if (s.getChar() == b) {
-                    cont++;
-                }
-            }
-        }
-        return null;  /* string ends out of balance */
-
-    }
-
-    private static StringPointer classEnd(MatchState ms, StringPointer pp) {
-        StringPointer p = pp.getClone();
-        switch (p.postIncrString(1)) {
-            case L_ESC: {
-                BaseLib.luaAssert(p.getChar() != '\0', "malformed pattern (ends with '%')");
-                p.postIncrString(1);
-                return p;
-            }
-            case '[': {
-                if (p.getChar() == '^') {
-                    p.postIncrString(1);
-                }
-                do { // look for a `]' 
-                    BaseLib.luaAssert(p.getChar() != '\0', "malformed pattern (missing ']')");
-
-                    if (p.postIncrString(1) == L_ESC && p.getChar() != '\0') {
-                        p.postIncrString(1);  // skip escapes (e.g. `%]')
-                    }
-
-                } while (p.getChar() != ']');
-
-                p.postIncrString(1);
-                return p;
-            }
-            default: {
-                return p;
-            }
-        }
-    }
-
-    private static boolean singleMatch(char c, StringPointer p, StringPointer ep) {
-        switch (p.getChar()) {
-            case '.':
-                return true;  // matches any char
-            case L_ESC:
-                return matchClass(p.getChar(1), c);
-            case '[': {
-                StringPointer sp = ep.getClone();
-                sp.postIncrString(-1);
-                return matchBracketClass(c, p, sp);
-            }
-            default:
-                return (p.getChar() == c);
-        }
-    }
-
-    private static StringPointer minExpand(MatchState ms, StringPointer ss, StringPointer p, StringPointer ep) {
-        StringPointer sp = ep.getClone();
-        StringPointer s = ss.getClone();
-
-        sp.postIncrString(1);
-        while (true) {
-            StringPointer res = match(ms, s, sp);
-            if (res != null) {
-                return res;
-            } else if (s.getIndex() < ms.endIndex && singleMatch(s.getChar(), p, ep)) {
-                s.postIncrString(1);  // try with one more repetition 
-            } else {
-                return null;
-            }
-        }
-    }
-
-    private static StringPointer maxExpand(MatchState ms, StringPointer s, StringPointer p, StringPointer ep) {
-        int i = 0;  // counts maximum expand for item
-        while (s.getIndex() + i < ms.endIndex && singleMatch(s.getChar(i), p, ep)) {
-            i++;
-        }
-        // keeps trying to match with the maximum repetitions 
-        while (i >= 0) {
-            StringPointer sp1 = s.getClone();
-            sp1.postIncrString(i);
-            StringPointer sp2 = ep.getClone();
-            sp2.postIncrString(1);
-            StringPointer res = match(ms, sp1, sp2);
-            if (res != null) {
-                return res;
-            }
-            i--;  // else didn't match; reduce 1 repetition to try again
-        }
-        return null;
-    }
-
-    private static boolean matchBracketClass(char c, StringPointer pp, StringPointer ecc) {
-        StringPointer p = pp.getClone();
-        StringPointer ec = ecc.getClone();
-        boolean sig = true;
-        if (p.getChar(1) == '^') {
-            sig = false;
-            p.postIncrString(1);  // skip the `^'
-        }
-        while (p.preIncrStringI(1) < ec.getIndex()) {
-            if (p.getChar() == L_ESC) {
-                p.postIncrString(1);
-                if (matchClass(p.getChar(), c)) {
-                    return sig;
-                }
-            } else if ((p.getChar(1) == '-') && (p.getIndex() + 2 < ec.getIndex())) {
-                p.postIncrString(2);
-                if (p.getChar(-2) <= c && c <= p.getChar()) {
-                    return sig;
-                }
-            } else if (p.getChar() == c) {
-                return sig;
-            }
-        }
-        return !sig;
-    }
-
-    private static StringPointer match(MatchState ms, StringPointer ss, StringPointer pp) {
-        StringPointer s = ss.getClone();
-        StringPointer p = pp.getClone();
-        while (true) {
-            switch (p.getChar()) {
-                case '(': { // start capture
-                    StringPointer p1 = p.getClone();
-                    if (p.getChar(1) == ')') { // position capture?
-                        p1.postIncrString(2);
-                        return startCapture(ms, s, p1, CAP_POSITION);
-                    } else {
-                        p1.postIncrString(1);
-                        return startCapture(ms, s, p1, CAP_UNFINISHED);
-                    }
-                }
-                case ')': { // end capture 
-                    StringPointer p1 = p.getClone();
-                    p1.postIncrString(1);
-                    return endCapture(ms, s, p1);
-                }
-                case L_ESC: {
-                    switch (p.getChar(1)) {
-                        case 'b': { // balanced string?
-                            StringPointer p1 = p.getClone();
-                            p1.postIncrString(2);
-                            s = matchBalance(ms, s, p1);
-                            if (s == null) {
-                                return null;
-                            }
-                            p.postIncrString(4);
-                            continue; // else return match(ms, s, p+4);
-                        }
-                        case 'f': { // frontier?
-                            p.postIncrString(2);
-                            BaseLib.luaAssert(p.getChar() == '[', "missing '[' after '%%f' in pattern");
-
-                            StringPointer ep = classEnd(ms, p);  // points to what is next
-                            char previous = (s.getIndex() == ms.src_init.getIndex()) ? '\0' : s.getChar(-1);
-
-                            StringPointer ep1 = ep.getClone();
-                            ep1.postIncrString(-1);
-                            if (matchBracketClass(previous, p, ep1) || !matchBracketClass(s.getChar(), p, ep1)) {
-                                return null;
-                            }
-                            p = ep;
-                            continue; // else return match(ms, s, ep);
-                        }
-                        default: {
-                            if (Character.isDigit(p.getChar(1))) { // capture results (%0-%9)?
-                                s = matchCapture(ms, s, p.getChar(1));
-                                if (s == null) {
-                                    return null;
-                                }
-                                p.postIncrString(2);
-                                continue; // else return match(ms, s, p+2) 
-                            }
-                        }
-                    }
-                    break;
-                }
-                case '\0': {  // end of pattern
-                    return s;  // match succeeded
-                }
-                case '$': {
-                    if (p.getChar(1) == '\0') { // is the `$' the last char in pattern?
-                        return (s.getIndex() == ms.endIndex) ? s : null;  // check end of string 
-                    }
-                }
-            }
-
-            // it is a pattern item
-            StringPointer ep = classEnd(ms, p);  // points to what is next
-            boolean m = (s.getIndex() < ms.endIndex && singleMatch(s.getChar(), p, ep));
-            switch (ep.getChar()) {
-                case '?': { // optional
-                    StringPointer res;
-                    StringPointer s1 = s.getClone();
-                    s1.postIncrString(1);
-                    StringPointer ep1 = ep.getClone();
-                    ep1.postIncrString(1);
-
-                    if (m && ((res = match(ms, s1, ep1)) != null)) {
-                        return res;
-                    }
-                    p = ep;
-                    p.postIncrString(1);
-                    continue; // else return match(ms, s, ep+1);
-                }
-                case '*': { // 0 or more repetitions 
-                    return maxExpand(ms, s, p, ep);
-                }
-                case '+': { // 1 or more repetitions
-                    StringPointer s1 = s.getClone();
-                    s1.postIncrString(1);
-                    return (m ? maxExpand(ms, s1, p, ep) : null);
-                }
-                case '-': { // 0 or more repetitions (minimum) 
-                    return minExpand(ms, s, p, ep);
-                }
-                default: {
-                    if (!m) {
-                        return null;
-                    }
-                    s.postIncrString(1);
-
-                    p = ep;
+            LuaPattern p = LuaPattern.get(pattern);
+            MatchState ms = new MatchState(source, p);
+            int start = p.find(ms, init);
+            if (start >= 0) {
+                if (find) {
+                    return callFrame.push(BaseLib.toDouble(start + 1), BaseLib.toDouble(ms.matchEnd)) + push_captures(callFrame, ms, start, ms.matchEnd, false);
+                } else {
+                    return push_captures(callFrame, ms, start, ms.matchEnd, true);
                 }
             }
         }
+        return callFrame.pushNil();  // not found
     }
 
-    private static boolean matchClass(char classIdentifier, char c) {
+    static boolean matchClass(char classIdentifier, char c) {
         boolean res;
         char lowerClassIdentifier = Character.toLowerCase(classIdentifier);
         switch (lowerClassIdentifier) {
@@ -1467,31 +1062,25 @@ public enum StringLib implements JavaFunction {
         return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
     }
 
-    private static String addString(MatchState ms, Object repl, StringPointer s, StringPointer e) {
-        String replTemp = BaseLib.tostring_undynamic(repl);
-        StringPointer replStr = new StringPointer(replTemp);
-        StringBuilder buf = new StringBuilder();
-        for (int i = 0; i < replTemp.length(); i++) {
-            if (replStr.getChar(i) != L_ESC) {
-                buf.append(replStr.getChar(i));
+    private static void addString(MatchState ms, String repl, StringBuilder buf, int s, int e) {
+        int len = repl.length();
+        for (int i = 0; i < len; i++) {
+            char c = repl.charAt(i);
+            if (c != L_ESC) {
+                buf.append(c);
             } else {
                 i++;  // skip ESC
-                if (!Character.isDigit(replStr.getChar(i))) {
-                    buf.append(replStr.getChar(i));
-                } else if (replStr.getChar(i) == '0') {
-                    String str = s.getString();
-                    int len = s.length() - e.length();
-                    if (len > str.length()) {
-                        len = str.length();
-                    }
-                    buf.append(str.substring(0, len));
+                c = i < len ? repl.charAt(i) : '\0';
+                if (!Character.isDigit(c)) {
+                    buf.append(c);
+                } else if (c == '0') {
+                    buf.append(ms.src, s, e);
                 } else {
-                    int captureIndex = replStr.getChar(i) - '1';
-                    Object[] captures = ms.getCaptures();
-                    if (captures == null || captureIndex > ms.level) {
+                    int captureIndex = c - '1';
+                    if (captureIndex >= ms.level) {
                         throw new RuntimeException("invalid capture index");
                     }
-                    Object o = captures[captureIndex];
+                    Object o = ms.getCapture(captureIndex, s, e);
                     if (o instanceof Double) {
                         Double doubleValue = ((Double) o);
                         if (doubleValue - doubleValue.intValue() == 0) {
@@ -1505,6 +1094,5 @@ public enum StringLib implements JavaFunction {
                 }
             }
         }
-        return buf.toString();
     }
 }
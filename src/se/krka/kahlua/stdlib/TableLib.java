@@ -24,6 +24,9 @@
  */
 package se.krka.kahlua.stdlib;
 
+import java.util.Arrays;
+import java.util.Comparator;
+
 import se.krka.kahlua.vm.JavaFunction;
 import se.krka.kahlua.vm.LuaCallFrame;
 import se.krka.kahlua.vm.LuaState;
@@ -65,7 +68,7 @@ public enum TableLib implements JavaFunction {
                             buffer.append(separator);
                         }
 
-                        Object value = table.rawget((double) i);
+                        Object value = table.rawget(i);
                         String valueStr = BaseLib.rawTostring(value);
                         if (valueStr == null) {
                             BaseLib.fail("bad value at index " + i + ": expected string or number");
@@ -75,8 +78,209 @@ public enum TableLib implements JavaFunction {
 
                     return callFrame.push(buffer.toString());
                 }
+            },
+    INSERT {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    LuaTable table = getTableArg(callFrame, nArguments, getName());
+                    int end = table.len() + 1;
+                    int pos;
+                    Object value;
+                    if (nArguments == 2) {
+                        pos = end;
+                        value = callFrame.get(1);
+                    } else if (nArguments == 3) {
+                        double position = (Double) BaseLib.getArg(callFrame, 2, BaseLib.TYPE_NUMBER, getName());
+                        if (position < 1 || position > end) {
+                            BaseLib.fail("bad argument #2 to '" + getName() + "' (position out of bounds)");
+                        }
+                        pos = (int) position;
+                        value = callFrame.get(2);
+                        long shifted = (long) end - pos;
+                        callFrame.thread.state.chargeTicks((int) shifted);
+                        for (int i = end; i > pos; i--) {
+                            table.rawset(i, table.rawget(i - 1));
+                        }
+                    } else {
+                        throw new RuntimeException("wrong number of arguments to 'insert'");
+                    }
+                    table.rawset(pos, value);
+                    return 0;
+                }
+            },
+    REMOVE {
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    LuaTable table = getTableArg(callFrame, nArguments, getName());
+                    int end = table.len();
+                    int pos = BaseLib.getOptArgInteger(callFrame, 2, end);
+                    if (end == 0 || pos < 1 || pos > end) {
+                        return 0;
+                    }
+                    Object removed = table.rawget(pos);
+                    for (int i = pos; i < end; i++) {
+                        table.rawset(i, table.rawget(i + 1));
+                    }
+                    table.rawset(end, null);
+                    callFrame.thread.state.chargeTicks(end - pos);
+                    return callFrame.push(removed);
+                }
+            },
+    _SORT0 { // part of the implementation is in stdlib.lua to prevent calling Lua functions from Java
+                // sorts the table directly if it only contains numbers or only strings and no comparator is given,
+                // otherwise returns a SortPauseState that asks stdlib.lua to perform each comparison.
+                @Override
+                public int call(LuaCallFrame callFrame, int nArguments) {
+                    LuaTable table = getTableArg(callFrame, nArguments, "sort");
+                    Object comparator = nArguments >= 2 ? callFrame.get(1) : null;
+
+                    int n = table.len();
+                    if (n < 2) {
+                        return 0;
+                    }
+                    Object[] values = new Object[n];
+                    for (int i = 0; i < n; i++) {
+                        values[i] = table.rawget(i + 1);
+                    }
+
+                    if (comparator == null) {
+                        Comparator<Object> primitive = primitiveComparator(values);
+                        if (primitive != null) {
+                            Arrays.sort(values, primitive);
+                            for (int i = 0; i < n; i++) {
+                                table.rawset(i + 1, values[i]);
+                            }
+                            long comparisons = (long) n * (32 - Integer.numberOfLeadingZeros(n));
+                            callFrame.thread.state.chargeTicks((int) Math.min(comparisons, Integer.MAX_VALUE));
+                            return 0;
+                        }
+                    }
+                    return callFrame.push(new SortPauseState(table, values));
+                }
             };
 
+    private static final Comparator<Object> NUMBER_ORDER = new Comparator<Object>() {
+        @Override
+        public int compare(Object a, Object b) {
+            double ad = (Double) a, bd = (Double) b;
+            return ad < bd ? -1 : (bd < ad ? 1 : 0);
+        }
+    };
+
+    private static final Comparator<Object> STRING_ORDER = new Comparator<Object>() {
+        @Override
+        public int compare(Object a, Object b) {
+            return ((String) a).compareTo((String) b);
+        }
+    };
+
+    // Returns the ordering that the < operator would use, if it is the same for all values and needs no metamethods.
+    // NaN is not ordered by <, so numbers including a NaN are left to the merge sort, which never trusts the order.
+    private static Comparator<Object> primitiveComparator(Object[] values) {
+        Class<?> type = values[0] == null ? null : values[0].getClass();
+        if (type != Double.class && type != String.class) {
+            return null;
+        }
+        for (Object value : values) {
+            if (value == null || value.getClass() != type) {
+                return null;
+            }
+            if (type == Double.class && ((Double) value).isNaN()) {
+                return null;
+            }
+        }
+        return type == Double.class ? NUMBER_ORDER : STRING_ORDER;
+    }
+
+    /**
+     * A bottom-up merge sort which can pause before every comparison. Each call
+     * takes the result of the previous comparison (if any), and returns either
+     * true, when the table is sorted, or false and the two values that need to
+     * be compared next.
+     */
+    private static class SortPauseState implements JavaFunction {
+
+        private final LuaTable table;
+        private Object[] src, dst;
+        private final int n;
+        private int width = 1, lo, mid, hi, i, j, k;
+        private boolean comparing, checkedOrder;
+
+        SortPauseState(LuaTable table, Object[] values) {
+            this.table = table;
+            this.n = values.length;
+            this.src = values;
+            this.dst = new Object[n];
+            startMerge(0);
+        }
+
+        @Override
+        public int call(LuaCallFrame callFrame, int nArguments) {
+            if (comparing) {
+                comparing = false;
+                boolean rightFirst = LuaState.boolEval(nArguments >= 1 ? callFrame.get(0) : null);
+                if (!checkedOrder) {
+                    checkedOrder = true;
+                    if (!rightFirst) {
+                        // the runs are already in order, so no merging is needed
+                        System.arraycopy(src, lo, dst, lo, hi - lo);
+                        k = hi;
+                        i = mid;
+                        j = hi;
+                    }
+                } else if (rightFirst) {
+                    dst[k++] = src[j++];
+                } else {
+                    dst[k++] = src[i++];
+                }
+            }
+            while (width < n) {
+                if (i < mid && j < hi) {
+                    comparing = true;
+                    if (!checkedOrder) {
+                        return callFrame.push(false, src[mid], src[mid - 1]);
+                    }
+                    return callFrame.push(false, src[j], src[i]);
+                }
+                if (i < mid) {
+                    System.arraycopy(src, i, dst, k, mid - i);
+                } else if (j < hi) {
+                    System.arraycopy(src, j, dst, k, hi - j);
+                }
+                if (hi < n) {
+                    startMerge(hi);
+                } else {
+                    Object[] tmp = src;
+                    src = dst;
+                    dst = tmp;
+                    width *= 2;
+                    startMerge(0);
+                }
+            }
+            for (int index = 0; index < n; index++) {
+                table.rawset(index + 1, src[index]);
+            }
+            return callFrame.push(true);
+        }
+
+        private void startMerge(int start) {
+            lo = start;
+            mid = Math.min(lo + width, n);
+            hi = Math.min(lo + 2 * width, n);
+            i = lo;
+            j = mid;
+            k = lo;
+            checkedOrder = false;
+        }
+    }
+
+    private static LuaTable getTableArg(LuaCallFrame callFrame, int nArguments, String function) {
+        BaseLib.luaAssert(nArguments >= 1, "bad argument #1 to '" + function + "' (table expected, got no value)");
+        Object table = callFrame.get(0);
+        BaseLib.luaAssert(table instanceof LuaTable, "bad argument #1 to '" + function + "' (table expected, got " + BaseLib.type(table) + ")");
+        return (LuaTable) table;
+    }
+
     public String getName() {
         return this.name().toLowerCase();
     }
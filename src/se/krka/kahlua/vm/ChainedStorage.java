@@ -0,0 +1,286 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+ Derived from code that was
+ Copyright (c) 2007-2008 Kristofer Karlsson <kristofer.karlsson@gmail.com>
+ Portions of this code Copyright (c) 2007 Andre Bogus <andre@m3n.de>
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.vm;
+
+/**
+ * Lua's own chained scatter table: keys[], values[] and next[] chains, with
+ * colliding keys placed in free slots taken from the top of the arrays.
+ */
+final class ChainedStorage extends TableStorage {
+
+    private Object[] keys;
+    private Object[] values;
+    private int[] next;
+    private int freeIndex;
+
+    ChainedStorage(int capacity) {
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        next = new int[capacity];
+
+        freeIndex = capacity;
+    }
+
+    private int mainPosition(int hash) {
+        return hash & (keys.length - 1);
+    }
+
+    @Override
+    Object keyAt(int slot) {
+        return unref(keys[slot]);
+    }
+
+    @Override
+    Object rawKeyAt(int slot) {
+        return keys[slot];
+    }
+
+    @Override
+    Object valueAt(int slot) {
+        return unref(values[slot]);
+    }
+
+    @Override
+    void setValue(int slot, Object value) {
+        if (weakValues) {
+            Object old = values[slot];
+            if (value != null && old instanceof WeakSlot && ((WeakSlot) old).get() == value) {
+                return;
+            }
+            value = ref(value, hashOf(keys[slot]));
+        }
+        values[slot] = value;
+    }
+
+    @Override
+    int slotCount() {
+        return keys.length;
+    }
+
+    @Override
+    int find(Object key) {
+        int index = mainPosition(LuaTable.luaHashcode(key));
+        Object currentKey = keys[index];
+
+        if (currentKey == null) {
+            return -1;
+        }
+        /*
+         * Doubles need special treatment due to how
+         * java implements equals and hashcode for Double.
+         * Neither numbers nor strings are ever stored as weak references.
+         */
+        if (key instanceof Double) {
+            double dkey = (Double) key;
+            while (true) {
+                if (currentKey instanceof Double) {
+                    double dCurrentKey = (Double) currentKey;
+                    if (dkey == dCurrentKey) {
+                        return index;
+                    }
+                }
+
+                index = next[index];
+                if (index == -1) {
+                    return -1;
+                }
+                currentKey = keys[index];
+            }
+
+        }
+
+        if (key instanceof String) {
+            while (true) {
+                if (key.equals(currentKey)) {
+                    return index;
+                }
+                index = next[index];
+                if (index == -1) {
+                    return -1;
+                }
+                currentKey = keys[index];
+            }
+        }
+
+        // Assume equality == identity for all types except for doubles and strings
+        while (true) {
+            if (key == (weakKeys ? unref(currentKey) : currentKey)) {
+                return index;
+            }
+            index = next[index];
+            if (index == -1) {
+                return -1;
+            }
+            currentKey = keys[index];
+        }
+    }
+
+    @Override
+    int insert(Object key) {
+        sweep();
+        int hash = LuaTable.luaHashcode(key);
+        Object rawKey = weakKeys ? ref(key, hash) : key;
+        while (true) {
+            int index = newKey(rawKey, hash);
+            if (index >= 0) {
+                return index;
+            }
+        }
+    }
+
+    /*
+     * Works on keys as stored: a collected weak key still occupies its slot
+     * and its chain, so the chains stay intact until the next rehash.
+     */
+    private int newKey(Object rawKey, int hash) {
+        // assert key not in table
+        // Assert key != null
+        int mp = mainPosition(hash);
+        Object key2 = keys[mp];
+
+        // mainPosition is unoccupied
+        if (key2 == null) {
+            keys[mp] = rawKey;
+            values[mp] = null;
+            next[mp] = -1;
+
+            return mp;
+        }
+
+        // need to find a free index, either for key, or for the conflicting key
+        // since java checks bounds all the time, using try-catch may be faster than manually
+        // checking
+        try {
+            while (keys[--freeIndex] != null);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            rehash(1, false);
+            return -1;
+        }
+
+        int mp2 = mainPosition(hashOf(key2));
+        // index is occupied by something with the same main index
+        if (mp2 == mp) {
+            keys[freeIndex] = rawKey;
+            values[freeIndex] = null;
+            next[freeIndex] = next[mp];
+
+            next[mp] = freeIndex;
+            return freeIndex;
+        }
+
+        // old key is not in its main position
+        // move old key to free index
+        keys[freeIndex] = keys[mp];
+        values[freeIndex] = values[mp];
+        next[freeIndex] = next[mp];
+
+        keys[mp] = rawKey;
+        values[mp] = null;
+        next[mp] = -1;
+
+        // fix next link for the moved key
+        int prev = mp2;
+        while (true) {
+            int tmp = next[prev];
+            if (tmp == mp) {
+                next[prev] = freeIndex;
+                break;
+            }
+            prev = tmp;
+        }
+
+        return mp;
+    }
+
+    /*
+     * Moves the live entries into new arrays with room for extra more. The
+     * stored references are moved as they are, unless convert is set, in
+     * which case they are rewrapped to match weakKeys and weakValues.
+     */
+    private void rehash(int extra, boolean convert) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int hashLength = oldKeys.length;
+
+        int usedTotal = extra;
+
+        for (int i = hashLength - 1; i >= 0; --i) {
+            if (isLive(oldKeys[i], oldValues[i])) {
+                usedTotal++;
+            }
+        }
+
+        int hashCapacity = 2 * nearestPowerOfTwo(usedTotal);
+        if (hashCapacity < 2) {
+            hashCapacity = 2;
+        }
+
+        allocate(hashCapacity);
+
+        for (int i = hashLength - 1; i >= 0; --i) {
+            Object key = oldKeys[i];
+            Object value = oldValues[i];
+            if (!isLive(key, value)) {
+                continue;
+            }
+            if (convert) {
+                key = unref(key);
+                value = unref(value);
+                int hash = LuaTable.luaHashcode(key);
+                int index = newKey(weakKeys ? ref(key, hash) : key, hash);
+                values[index] = weakValues ? ref(value, hash) : value;
+            } else {
+                values[newKey(key, hashOf(key))] = value;
+            }
+        }
+    }
+
+    @Override
+    void setWeak(boolean k, boolean v) {
+        if (k != weakKeys || v != weakValues) {
+            weakKeys = k;
+            weakValues = v;
+            rehash(0, true);
+        }
+    }
+
+    @Override
+    void clear(WeakSlot cleared) {
+        int index = mainPosition(cleared.hash);
+        if (keys[index] == null) {
+            return;
+        }
+        for (; index != -1; index = next[index]) {
+            if (keys[index] == cleared || values[index] == cleared) {
+                values[index] = null;
+                return;
+            }
+        }
+    }
+}
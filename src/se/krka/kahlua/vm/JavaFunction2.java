@@ -0,0 +1,43 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.vm;
+
+/**
+ * A JavaFunction that takes at most two arguments and returns exactly one value,
+ * which can be written as a lambda. Missing arguments are null and extra
+ * arguments are ignored.
+ */
+public interface JavaFunction2 extends JavaFunction {
+
+    /**
+     * @param arg1 - the first argument, or null if there was none
+     * @param arg2 - the second argument, or null if there was none
+     * @return the single return value
+     */
+    public abstract Object call(Object arg1, Object arg2);
+
+    @Override
+    public default int call(LuaCallFrame callFrame, int nArguments) {
+        return callFrame.push(call(nArguments >= 1 ? callFrame.get(0) : null,
+                nArguments >= 2 ? callFrame.get(1) : null));
+    }
+}
@@ -23,13 +23,16 @@
  */
 package se.krka.kahlua.vm;
 
+import se.krka.kahlua.stdlib.BaseLib;
+
 public class LuaCallFrame {
 
     public LuaCallFrame(LuaThread thread) {
         this.thread = thread;
     }
 
-    public final LuaThread thread;
+    // only changes when the stacks of a finished coroutine are handed to a new thread
+    public LuaThread thread;
     public LuaClosure closure;
     public JavaFunction javaFunction;
     public int pc, localBase, nArguments;
@@ -77,14 +80,83 @@ public class LuaCallFrame {
         return push(null);
     }
 
+    /**
+     * Pushes len values of an array in one go.
+     *
+     * @return len, the number of values pushed
+     */
+    public int pushAll(Object[] values, int offset, int len) {
+        int top = thread.getTop();
+        thread.setTop(top + len);
+        System.arraycopy(values, offset, thread.objectStack, top, len);
+        return len;
+    }
+
+    /**
+     * Copies len stack values, starting at index, into an array.
+     */
+    public void getAll(int index, Object[] dest, int offset, int len) {
+        System.arraycopy(thread.objectStack, localBase + index, dest, offset, len);
+    }
+
+    /*
+     * Typed argument accessors for JavaFunctions. Unlike BaseLib.getArg,
+     * n is the argument number starting at 1, and numbers are returned
+     * unboxed. Numbers and strings are coerced to each other like in
+     * BaseLib.getArg, and function is the name used in error messages.
+     */
+
+    public double checkDouble(int n, String function) {
+        Object o = n <= nArguments ? get(n - 1) : null;
+        if (o instanceof Double) {
+            return (Double) o;
+        }
+        Double d = BaseLib.rawTonumber(o);
+        if (d == null) {
+            throw badArgument(n, function, BaseLib.TYPE_NUMBER, o);
+        }
+        return d;
+    }
+
+    public int checkInt(int n, String function) {
+        return (int) checkDouble(n, function);
+    }
+
+    public String checkString(int n, String function) {
+        Object o = n <= nArguments ? get(n - 1) : null;
+        String s = BaseLib.rawTostring(o);
+        if (s == null) {
+            throw badArgument(n, function, BaseLib.TYPE_STRING, o);
+        }
+        return s;
+    }
+
+    public double optDouble(int n, double default_, String function) {
+        if (n > nArguments || get(n - 1) == null) {
+            return default_;
+        }
+        return checkDouble(n, function);
+    }
+
+    public int optInt(int n, int default_, String function) {
+        if (n > nArguments || get(n - 1) == null) {
+            return default_;
+        }
+        return checkInt(n, function);
+    }
+
+    private RuntimeException badArgument(int n, String function, String type, Object o) {
+        String got = o != null ? BaseLib.type(o) : n <= nArguments ? BaseLib.TYPE_NIL : "no value";
+        return new RuntimeException("bad argument #" + n + " to '" + function
+                + "' (" + type + " expected, got " + got + ")");
+    }
+
     public final void stackCopy(int startIndex, int destIndex, int len) {
         thread.stackCopy(localBase + startIndex, localBase + destIndex, len);
     }
 
     public void stackClear(int startIndex, int endIndex) {
-        for (; startIndex <= endIndex; startIndex++) {
-            thread.objectStack[localBase + startIndex] = null;
-        }
+        thread.stackClear(localBase + startIndex, localBase + endIndex);
     }
 
     /**
@@ -36,6 +36,10 @@ public final class LuaPrototype {
     // Semi-constant
     public boolean isExceptionHandler;
 
+    // how OP_CLOSURE binds the upvalues of this function, see LuaState.upvalueBindings;
+    // volatile since prototypes can be shared by states on different threads
+    volatile int[] upvalueBindings;
+
     // debug info
     public String name;
     public int[] lines;
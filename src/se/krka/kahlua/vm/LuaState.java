@@ -85,6 +85,12 @@ public class LuaState {
 
     static final int MAX_INDEX_RECURSION = 100;
 
+    // stacks of coroutines that have returned, for the next LuaThreads to reuse
+    static final int MAX_POOLED_STACKS = 8;
+    final Object[][] pooledObjectStacks = new Object[MAX_POOLED_STACKS][];
+    final LuaCallFrame[][] pooledCallFrameStacks = new LuaCallFrame[MAX_POOLED_STACKS][];
+    int pooledStacks;
+
     private static final String meta_ops[];
 
     static {
@@ -216,6 +222,33 @@ public class LuaState {
 
     private boolean ismainloop = false;
 
+    // Extra ticks charged by library functions, taken from the budget of a metered luaMainloop when they return.
+    private int chargedTicks = 0;
+
+    // the countdown of an unmetered loop, refilled whenever it runs out
+    private static final int UNMETERED_TICKS = Integer.MAX_VALUE - 1;
+
+    /**
+     * Charges extra ticks against the current tick budget, so that library
+     * functions which do a lot of work in a single call are not free.
+     * Charges add up until the budget is next checked, saturating at
+     * Integer.MAX_VALUE rather than wrapping around.
+     *
+     * @param ticks the number of ticks to charge, which must not be negative
+     */
+    public void chargeTicks(int ticks) {
+        if (ticks < 0) {
+            throw new IllegalArgumentException("cannot charge a negative number of ticks: " + ticks);
+        }
+        chargedTicks = ticks > Integer.MAX_VALUE - chargedTicks ? Integer.MAX_VALUE : chargedTicks + ticks;
+    }
+
+    private int takeChargedTicks(int maxTicks) {
+        int charged = chargedTicks;
+        chargedTicks = 0;
+        return charged < maxTicks ? maxTicks - charged : 0;
+    }
+
     // returns true if an actual return happened, as opposed to a tick exhaustion.
     private boolean luaMainloop(int maxTicks) { // TODO: See if this can be cleaned up at all.
         if (ismainloop) {
@@ -229,9 +262,26 @@ public class LuaState {
 
             int returnBase = callFrame.returnBase;
 
+            chargedTicks = 0;
+            currentThread.needsContextRestore = false;
+
+            /*
+             * The same countdown serves both kinds of loop, so an instruction
+             * costs one decrement either way. An unmetered loop just refills
+             * it when it runs out. Ticks charged by library functions are
+             * taken from the budget right after the Java call returns.
+             */
+            final boolean metered = maxTicks != -1;
+            if (!metered) {
+                maxTicks = UNMETERED_TICKS;
+            }
+
             while (true) {
-                if (maxTicks != -1 && maxTicks-- == 0) {
-                    return false;
+                if (maxTicks-- == 0) {
+                    if (metered) {
+                        return false;
+                    }
+                    maxTicks = UNMETERED_TICKS;
                 }
                 try {
                     int a, b, c;
@@ -239,12 +289,6 @@ public class LuaState {
                     int op = opcodes[callFrame.pc++];
                     int opcode = op & 63;
 
-                    currentThread.needsContextRestore = false;
-
-                    if (opcode != OP_CONCAT) {
-                        callFrame.concatStatus = -2;
-                    }
-
                     switch (opcode) {
                         case OP_MOVE: {
                             a = getA8(op);
@@ -282,27 +326,44 @@ public class LuaState {
                             callFrame.set(a, uv.getValue());
                             break;
                         }
-                        case OP_GETGLOBAL: {
-                            a = getA8(op);
-                            b = getBx(op);
-
-                            callFrame.postProcess = false;
-
-                            callFrame = tableGetDele(a, closure.env, prototype.constants[b], callFrame);
-                            break;
-                        }
+                        case OP_GETGLOBAL:
                         case OP_GETTABLE: {
                             a = getA8(op);
-                            b = getB9(op);
-                            c = getC9(op);
 
-                            Object bObj = callFrame.get(b);
-
-                            Object key = getRegisterOrConstant(callFrame, c, prototype);
+                            Object bObj;
+                            Object key;
+                            if (opcode == OP_GETGLOBAL) {
+                                bObj = closure.env;
+                                key = prototype.constants[getBx(op)];
+                            } else {
+                                bObj = callFrame.get(getB9(op));
+                                key = getRegisterOrConstant(callFrame, getC9(op), prototype);
+                            }
 
                             callFrame.postProcess = false;
 
                             callFrame = tableGetDele(a, bObj, key, callFrame);
+
+                            // a.b.c chains, and calls like f() or os.time()
+                            while (maxTicks != 0 && !currentThread.needsContextRestore) {
+                                op = opcodes[callFrame.pc];
+                                opcode = op & 63;
+                                if (opcode == OP_GETTABLE && getB9(op) == a) {
+                                    callFrame.pc++;
+                                    maxTicks--;
+                                    bObj = callFrame.get(a);
+                                    key = getRegisterOrConstant(callFrame, getC9(op), prototype);
+                                    a = getA8(op);
+                                    callFrame = tableGetDele(a, bObj, key, callFrame);
+                                } else {
+                                    if (opcode == OP_CALL && getA8(op) == a) {
+                                        callFrame.pc++;
+                                        maxTicks--;
+                                        callFrame = callInstruction(op, callFrame);
+                                    }
+                                    break;
+                                }
+                            }
                             break;
                         }
                         case OP_SELF: {
@@ -319,6 +380,16 @@ public class LuaState {
                             callFrame.postProcessArg = bObj;
 
                             callFrame = tableGetDele(a, bObj, key, callFrame);
+
+                            // obj:method()
+                            if (maxTicks != 0 && !currentThread.needsContextRestore) {
+                                op = opcodes[callFrame.pc];
+                                if ((op & 63) == OP_CALL && getA8(op) == a) {
+                                    callFrame.pc++;
+                                    maxTicks--;
+                                    callFrame = callInstruction(op, callFrame);
+                                }
+                            }
                             break;
                         }
                         case OP_SETGLOBAL: {
@@ -354,11 +425,10 @@ public class LuaState {
                         }
                         case OP_NEWTABLE: {
                             a = getA8(op);
+                            b = getB9(op);
+                            c = getC9(op);
 
-                            // Used to set up initial array and hash size - not implemented
-                            // b = getB9(op);
-                            // c = getC9(op);
-                            LuaTable t = new LuaTable();
+                            LuaTable t = new LuaTable(fb2int(b), fb2int(c));
                             callFrame.set(a, t);
                             break;
                         }
@@ -395,7 +465,7 @@ public class LuaState {
 
                                 callFrame = callInternalDele(metafun, top, callFrame.localBase + a, 2, true, callFrame);
                             } else {
-                                callFrame.set(a, primitiveMath(bd, cd, opcode));
+                                callFrame.set(a, BaseLib.toDouble(primitiveMath(bd, cd, opcode)));
                             }
                             break;
                         }
@@ -406,7 +476,7 @@ public class LuaState {
 
                             Double aDouble = BaseLib.rawTonumber(aObj);
                             if (aDouble != null) {
-                                callFrame.set(a, -aDouble);
+                                callFrame.set(a, BaseLib.toDouble(-aDouble));
                             } else {
                                 Object metafun = getMetaOp(aObj, "__unm");
                                 BaseLib.luaAssert(metafun != null, "__unm not defined for operand");
@@ -437,10 +507,10 @@ public class LuaState {
                             Object o = callFrame.get(b);
                             if (o instanceof LuaTable) {
                                 LuaTable t = (LuaTable) o;
-                                callFrame.set(a, (double) t.len());
+                                callFrame.set(a, BaseLib.toDouble(t.len()));
                             } else if (o instanceof String) {
                                 String s = (String) o;
-                                callFrame.set(a, (double) s.length());
+                                callFrame.set(a, BaseLib.toDouble(s.length()));
                             } else {
                                 Object f = getMetaOp(o, "__len");
                                 BaseLib.luaAssert(f != null, "__len not defined for operand");
@@ -526,46 +596,34 @@ public class LuaState {
                                 double bd_primitive = (Double) bo;
                                 double cd_primitive = (Double) co;
 
+                                boolean result;
                                 if (opcode == OP_EQ) {
-                                    if ((bd_primitive == cd_primitive) == (a == 0)) {
-                                        callFrame.pc++;
-                                    }
-                                } else {
-                                    if (opcode == OP_LT) {
-                                        if ((bd_primitive < cd_primitive) == (a == 0)) {
-                                            callFrame.pc++;
-                                        }
-                                    } else { // opcode must be OP_LE
-                                        if ((bd_primitive <= cd_primitive) == (a == 0)) {
-                                            callFrame.pc++;
-                                        }
-                                    }
+                                    result = bd_primitive == cd_primitive;
+                                } else if (opcode == OP_LT) {
+                                    result = bd_primitive < cd_primitive;
+                                } else { // opcode must be OP_LE
+                                    result = bd_primitive <= cd_primitive;
                                 }
+                                maxTicks = skipOrJump(result == (a == 0), callFrame, opcodes, maxTicks);
                             } else if (bo instanceof String && co instanceof String) {
+                                boolean result;
                                 if (opcode == OP_EQ) {
-                                    if ((bo.equals(co)) == (a == 0)) {
-                                        callFrame.pc++;
-                                    }
+                                    result = bo.equals(co);
                                 } else {
                                     String bs = (String) bo;
                                     String cs = (String) co;
                                     int cmp = bs.compareTo(cs);
 
                                     if (opcode == OP_LT) {
-                                        if ((cmp < 0) == (a == 0)) {
-                                            callFrame.pc++;
-                                        }
+                                        result = cmp < 0;
                                     } else { // opcode must be OP_LE
-                                        if ((cmp <= 0) == (a == 0)) {
-                                            callFrame.pc++;
-                                        }
+                                        result = cmp <= 0;
                                     }
                                 }
+                                maxTicks = skipOrJump(result == (a == 0), callFrame, opcodes, maxTicks);
                             } else {
                                 if (bo == co) {
-                                    if (a == 0) {
-                                        callFrame.pc++;
-                                    }
+                                    maxTicks = skipOrJump(a == 0, callFrame, opcodes, maxTicks);
                                 } else {
                                     boolean invert = false;
 
@@ -592,9 +650,7 @@ public class LuaState {
                                     if (metafun == null) {
                                         if (opcode == OP_EQ) {
                                             boolean eq = LuaState.luaEquals(bo, co);
-                                            if ((eq ^ invert) == (a == 0)) {
-                                                callFrame.pc++;
-                                            }
+                                            maxTicks = skipOrJump((eq ^ invert) == (a == 0), callFrame, opcodes, maxTicks);
                                         } else {
                                             BaseLib.fail((meta_op + " not defined for operand"));
                                         }
@@ -630,9 +686,7 @@ public class LuaState {
                             c = getC9(op);
 
                             Object value = callFrame.get(a);
-                            if (boolEval(value) == (c == 0)) {
-                                callFrame.pc++;
-                            }
+                            maxTicks = skipOrJump(boolEval(value) == (c == 0), callFrame, opcodes, maxTicks);
 
                             break;
                         }
@@ -642,48 +696,16 @@ public class LuaState {
                             c = getC9(op);
 
                             Object value = callFrame.get(b);
-                            if (boolEval(value) != (c == 0)) {
+                            boolean skip = boolEval(value) == (c == 0);
+                            if (!skip) {
                                 callFrame.set(a, value);
-                            } else {
-                                callFrame.pc++;
                             }
+                            maxTicks = skipOrJump(skip, callFrame, opcodes, maxTicks);
 
                             break;
                         }
                         case OP_CALL: {
-                            a = getA8(op);
-                            b = getB9(op);
-                            c = getC9(op);
-                            int nArguments2 = b - 1;
-                            if (nArguments2 != -1) {
-                                callFrame.setTop(a + nArguments2 + 1);
-                            } else {
-                                nArguments2 = callFrame.getTop() - a - 1;
-                            }
-
-                            int base = callFrame.localBase;
-
-                            int localBase2 = base + a + 1;
-                            int returnBase2 = base + a;
-
-                            Object funObject = callFrame.get(a);
-                            BaseLib.luaAssert(funObject != null, "Tried to call nil");
-                            Object fun = prepareMetatableCall(funObject);
-                            if (fun == null) {
-                                BaseLib.fail(("Object " + funObject + " did not have __call metatable set"));
-                            }
-
-                            // If it's a metatable __call, prepend the caller as the
-                            // first argument
-                            if (fun != funObject) {
-                                localBase2 = returnBase2;
-                                nArguments2++;
-                            }
-
-                            callFrame.postProcess = false;
-                            callFrame.fixedRetCount = -1;
-
-                            callFrame = callInternalDele(fun, localBase2, returnBase2, nArguments2, c != 0, callFrame);
+                            callFrame = callInstruction(op, callFrame);
                             break;
                         }
                         case OP_TAILCALL: {
@@ -734,6 +756,9 @@ public class LuaState {
                                 LuaThread oldThread = currentThread;
                                 callJava((JavaFunction) fun, localBase2, returnBase,
                                         nArguments2);
+                                if (metered && chargedTicks != 0) {
+                                    maxTicks = takeChargedTicks(maxTicks);
+                                }
 
                                 callFrame = currentThread.currentCallFrame();
                                 oldThread.popCallFrame();
@@ -747,7 +772,9 @@ public class LuaState {
 
                                             // This is an implicit yield, so push a TRUE
                                             // to the parent
-                                            currentThread.parent.currentCallFrame().push(Boolean.TRUE);
+                                            if (!oldThread.wrapped) {
+                                                currentThread.parent.currentCallFrame().push(Boolean.TRUE);
+                                            }
                                         }
                                     }
 
@@ -785,7 +812,8 @@ public class LuaState {
                                 b = callFrame.getTop() - a;
                             }
 
-                            int frc = currentThread.parentCallFrame() != null ? currentThread.parentCallFrame().fixedRetCount : -1;
+                            LuaCallFrame parentFrame = currentThread.parentCallFrame();
+                            int frc = parentFrame != null ? parentFrame.fixedRetCount : -1;
                             if (frc != -1 && frc < b) {
                                 b = frc;
                             }
@@ -804,6 +832,7 @@ public class LuaState {
                                 LuaThread thread = currentThread;
                                 CoroutineLib.yieldHelper(callFrame, callFrame, b);
                                 thread.popCallFrame();
+                                thread.recycleStacks();
 
                                 // If this thread is called from a java function,
                                 // return immediately
@@ -877,7 +906,7 @@ public class LuaState {
 
                             double iter = (Double) callFrame.get(a);
                             double step = (Double) callFrame.get(a + 2);
-                            callFrame.set(a, iter - step);
+                            callFrame.set(a, BaseLib.toDouble(iter - step));
                             callFrame.pc += b;
                             break;
                         }
@@ -888,7 +917,7 @@ public class LuaState {
                             double end = (Double) callFrame.get(a + 1);
                             double step = (Double) callFrame.get(a + 2);
                             iter += step;
-                            Double iterDouble = iter;
+                            Double iterDouble = BaseLib.toDouble(iter);
                             callFrame.set(a, iterDouble);
 
                             if ((step > 0) ? iter <= end : iter >= end) {
@@ -948,11 +977,7 @@ public class LuaState {
                             int offset = (c - 1) * FIELDS_PER_FLUSH;
 
                             LuaTable t = (LuaTable) callFrame.get(a);
-                            for (int i = 1; i <= b; i++) {
-                                Object key = (double) (offset + i);
-                                Object value = callFrame.get(a + i);
-                                t.rawset(key, value);
-                            }
+                            t.rawsetList(offset + 1, currentThread.objectStack, callFrame.localBase + a + 1, b);
                             break;
                         }
                         case OP_CLOSE: {
@@ -964,26 +989,26 @@ public class LuaState {
                             a = getA8(op);
                             b = getBx(op);
                             LuaPrototype newPrototype = prototype.prototypes[b];
-                            LuaClosure newClosure = new LuaClosure(newPrototype, closure.env);
-                            callFrame.set(a, newClosure);
                             int numUpvalues = newPrototype.numUpvalues;
-                            for (int i = 0; i < numUpvalues; i++) {
-                                op = opcodes[callFrame.pc++];
-                                opcode = op & 63;
-                                b = getB9(op);
-                                switch (opcode) {
-                                    case OP_MOVE: {
-                                        newClosure.upvalues[i] = callFrame.findUpvalue(b);
-                                        break;
-                                    }
-                                    case OP_GETUPVAL: {
-                                        newClosure.upvalues[i] = closure.upvalues[b];
-                                        break;
+                            LuaClosure newClosure = new LuaClosure(newPrototype, closure.env);
+                            if (numUpvalues > 0) {
+                                int[] bindings = newPrototype.upvalueBindings;
+                                if (bindings == null) {
+                                    bindings = upvalueBindings(opcodes, callFrame.pc, numUpvalues);
+                                    newPrototype.upvalueBindings = bindings;
+                                }
+                                UpValue[] upvalues = newClosure.upvalues;
+                                for (int i = 0; i < numUpvalues; i++) {
+                                    int binding = bindings[i];
+                                    if (binding >= 0) {
+                                        upvalues[i] = callFrame.findUpvalue(binding);
+                                    } else {
+                                        upvalues[i] = closure.upvalues[~binding];
                                     }
-                                    default:
-                                    // should never happen
                                 }
+                                callFrame.pc += numUpvalues;
                             }
+                            callFrame.set(a, newClosure);
                             break;
                         }
                         case OP_VARARG: {
@@ -999,6 +1024,10 @@ public class LuaState {
                         }
                     } // switch
                     if (currentThread.needsContextRestore) {
+                        currentThread.needsContextRestore = false;
+                        if (metered && chargedTicks != 0) {
+                            maxTicks = takeChargedTicks(maxTicks);
+                        }
                         // This means that we got back from a yield to a java
                         // function, such as pcall
                         if (callFrame.isJava()) {
@@ -1011,6 +1040,9 @@ public class LuaState {
                         returnBase = callFrame.returnBase;
                     }
                 } catch (Throwable e) {
+                    if (metered && chargedTicks != 0) {
+                        maxTicks = takeChargedTicks(maxTicks);
+                    }
                     // Pop off all java frames first
                     while (true) {
                         callFrame = currentThread.currentCallFrame();
@@ -1032,6 +1064,14 @@ public class LuaState {
                                 // Close all live upvalues before yielding
                                 currentThread.closeUpvalues(0);
 
+                                if (currentThread.wrapped) {
+                                    // coroutine.wrap: the error carries on in the caller of the wrapper
+                                    parent.stackTrace += currentThread.stackTrace;
+                                    currentThread.state.currentThread = parent;
+                                    currentThread = parent;
+                                    continue;
+                                }
+
                                 // Yield and fail
                                 // Copy arguments
                                 LuaCallFrame nextCallFrame = parent
@@ -1103,6 +1143,47 @@ public class LuaState {
         }
     }
 
+    /**
+     * Runs an OP_CALL instruction. Kept out of luaMainloop so that the
+     * instructions that look up a function can run the call that follows
+     * them right away.
+     */
+    private LuaCallFrame callInstruction(int op, LuaCallFrame callFrame) {
+        int a = getA8(op);
+        int b = getB9(op);
+        int c = getC9(op);
+        int nArguments2 = b - 1;
+        if (nArguments2 != -1) {
+            callFrame.setTop(a + nArguments2 + 1);
+        } else {
+            nArguments2 = callFrame.getTop() - a - 1;
+        }
+
+        int base = callFrame.localBase;
+
+        int localBase2 = base + a + 1;
+        int returnBase2 = base + a;
+
+        Object funObject = callFrame.get(a);
+        BaseLib.luaAssert(funObject != null, "Tried to call nil");
+        Object fun = prepareMetatableCall(funObject);
+        if (fun == null) {
+            BaseLib.fail(("Object " + funObject + " did not have __call metatable set"));
+        }
+
+        // If it's a metatable __call, prepend the caller as the
+        // first argument
+        if (fun != funObject) {
+            localBase2 = returnBase2;
+            nArguments2++;
+        }
+
+        callFrame.postProcess = false;
+        callFrame.fixedRetCount = -1;
+
+        return callInternalDele(fun, localBase2, returnBase2, nArguments2, c != 0, callFrame);
+    }
+
     private LuaCallFrame callInternalDele(Object fun, int localBase2, int returnBase2, int nArguments2, boolean restoreTop, LuaCallFrame callFrame) throws RuntimeException {
         callFrame.restoreTop = restoreTop;
         if (fun instanceof LuaClosure) {
@@ -1183,7 +1264,54 @@ public class LuaState {
         return (op >>> 14) - 131071;
     }
 
-    private Double primitiveMath(double v1, double v2, int opcode) {
+    /**
+     * Finishes a test instruction. The compiler always follows a test with
+     * a JMP: if skip is set the JMP is stepped over, otherwise it is run
+     * right here instead of on another trip round the interpreter loop.
+     * The JMP still costs its tick, and is left to the loop when no tick is
+     * left, so the tick count is the same as running both separately.
+     *
+     * @return the new maxTicks
+     */
+    private static int skipOrJump(boolean skip, LuaCallFrame callFrame, int[] opcodes, int maxTicks) {
+        if (skip) {
+            callFrame.pc++;
+        } else if (maxTicks != 0) {
+            int op = opcodes[callFrame.pc];
+            if ((op & 63) == OP_JMP) {
+                callFrame.pc += 1 + getSBx(op);
+                maxTicks--;
+            }
+        }
+        return maxTicks;
+    }
+
+    /**
+     * Decodes the MOVE / GETUPVAL pseudo-instructions that follow an
+     * OP_CLOSURE into one int per upvalue: a stack slot of the enclosing
+     * frame, or the bitwise complement of an upvalue index of the
+     * enclosing closure.
+     */
+    private static int[] upvalueBindings(int[] opcodes, int pc, int numUpvalues) {
+        int[] bindings = new int[numUpvalues];
+        for (int i = 0; i < numUpvalues; i++) {
+            int op = opcodes[pc + i];
+            int b = getB9(op);
+            bindings[i] = (op & 63) == OP_MOVE ? b : ~b;
+        }
+        return bindings;
+    }
+
+    // decodes the "floating point byte" size hints of OP_NEWTABLE
+    private static int fb2int(int x) {
+        int e = (x >>> 3) & 31;
+        if (e == 0) {
+            return x;
+        }
+        return ((x & 7) + 8) << (e - 1);
+    }
+
+    private double primitiveMath(double v1, double v2, int opcode) {
         switch (opcode) {
             case OP_ADD:
                 return v1 + v2;
@@ -1344,7 +1472,11 @@ public class LuaState {
             double bd = (Double) b;
             return ad == bd;
         }
-        return a == b;
+        // a boxed NaN is identical to itself, so numbers must not get here
+        if (a == b) {
+            return true;
+        }
+        return a instanceof String && a.equals(b);
     }
 
     public static boolean boolEval(Object o) {
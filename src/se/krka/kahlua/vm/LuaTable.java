@@ -24,272 +24,43 @@
  */
 package se.krka.kahlua.vm;
 
-import java.lang.ref.WeakReference;
-
 import se.krka.kahlua.stdlib.BaseLib;
 
 public final class LuaTable {
 
-    private boolean weakKeys, weakValues;
+    /**
+     * Selects the hash layout of new tables: "chained" (the default) for
+     * Lua's chained scatter table, "open" for open addressing. Read once from
+     * the virtlua.table system property.
+     */
+    public static final String LAYOUT = System.getProperty("virtlua.table", "chained");
+    private static final boolean OPEN_ADDRESSING = "open".equals(LAYOUT);
+
+    // a size hint larger than this is not trusted up front
+    private static final int MAX_PRESIZE = 1 << 24;
 
-    // Hash part
-    private Object[] keys;
-    private Object[] values;
-    private int[] next;
-    private int freeIndex;
+    private final TableStorage storage;
 
     // Hash cache
     private Object keyIndexCacheKey;
     private int keyIndexCacheValue = -1;
 
-    private static final int[] log_2 = new int[]{
-        0, 1, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5,
-        6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6,
-        7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
-        7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
-        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
-        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
-        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
-        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8
-    };
-
-    private static int luaO_log2(int x) {
-        int l = -1;
-        while (x >= 256) {
-            l += 8;
-            x >>= 8;
-        }
-        return l + log_2[x];
-    }
-
-    private static int nearestPowerOfTwo(int x) {
-        return 1 << luaO_log2(x);
-    }
-
     public LuaTable() {
-        int capacity = 1;
-
-        keys = new Object[capacity];
-        values = new Object[capacity];
-        next = new int[capacity];
-
-        freeIndex = capacity;
-    }
-
-    private int getMP(Object key) {
-        // assert key != null
-        int capacity = keys.length;
-        return luaHashcode(key) & (capacity - 1);
-    }
-
-    private Object unref(Object o) {
-        if (!canBeWeakObject(o)) {
-            return o;
-        }
-
-        // Assertion: o instanceof WeakReference
-        return ((WeakReference) o).get();
-    }
-
-    private Object ref(Object o) {
-        if (!canBeWeakObject(o)) {
-            return o;
-        }
-
-        return new WeakReference(o);
-    }
-
-    private boolean canBeWeakObject(Object o) {
-        return !(o == null || o instanceof String
-                || o instanceof Double || o instanceof Boolean);
-    }
-
-    private Object __getKey(int index) {
-        Object key = keys[index];
-        if (weakKeys) {
-            return unref(key);
-        }
-        return key;
-    }
-
-    private void __setKey(int index, Object key) {
-        if (weakKeys) {
-            key = ref(key);
-        }
-        keys[index] = key;
-    }
-
-    private Object __getValue(int index) {
-        Object value = values[index];
-        if (weakValues) {
-            return unref(value);
-        }
-        return value;
-    }
-
-    private void __setValue(int index, Object value) {
-        if (weakValues) {
-            value = ref(value);
-        }
-        values[index] = value;
-    }
-
-    private int hash_primitiveFindKey(Object key, int index) {
-        Object currentKey = __getKey(index);
-
-        if (currentKey == null) {
-            return -1;
-        }
-        /*
-         * Doubles need special treatment due to how
-         * java implements equals and hashcode for Double
-         */
-        if (key instanceof Double) {
-            double dkey = (Double) key;
-            while (true) {
-                if (currentKey instanceof Double) {
-                    double dCurrentKey = (Double) currentKey;
-                    if (dkey == dCurrentKey) {
-                        return index;
-                    }
-                }
-
-                index = next[index];
-                if (index == -1) {
-                    return -1;
-                }
-                currentKey = __getKey(index);
-            }
-
-        }
-
-        if (key instanceof String) {
-            while (true) {
-                if (key.equals(currentKey)) {
-                    return index;
-                }
-                index = next[index];
-                if (index == -1) {
-                    return -1;
-                }
-                currentKey = __getKey(index);
-            }
-        }
-
-        // Assume equality == identity for all types except for doubles and strings
-        while (true) {
-            if (key == currentKey) {
-                return index;
-            }
-            index = next[index];
-            if (index == -1) {
-                return -1;
-            }
-            currentKey = __getKey(index);
-        }
-    }
-
-    private int hash_primitiveNewKey(Object key, int mp) {
-        keyIndexCacheKey = null;
-        keyIndexCacheValue = -1;
-
-        // assert key not in table
-        // Assert key != null
-        Object key2 = __getKey(mp);
-
-        // mainPosition is unoccupied
-        if (key2 == null) {
-            __setKey(mp, key);
-            next[mp] = -1;
-
-            return mp;
-        }
-
-        // need to find a free index, either for key, or for the conflicting key
-        // since java checks bounds all the time, using try-catch may be faster than manually
-        // checking
-        try {
-            while (__getKey(--freeIndex) != null);
-        } catch (ArrayIndexOutOfBoundsException e) {
-            hash_rehash(key);
-            return -1;
-        }
-
-        int mp2 = getMP(key2);
-        // index is occupied by something with the same main index
-        if (mp2 == mp) {
-            __setKey(freeIndex, key);
-            next[freeIndex] = next[mp];
-
-            next[mp] = freeIndex;
-            return freeIndex;
-        }
-
-        // old key is not in its main position
-        // move old key to free index
-        keys[freeIndex] = keys[mp];
-        values[freeIndex] = values[mp];
-        next[freeIndex] = next[mp];
-
-        __setKey(mp, key);
-        // unnecessary to set value - the main set method will do this.
-        // values[mp] = null;
-        next[mp] = -1;
-
-        // fix next link for the moved key
-        int prev = mp2;
-        while (true) {
-            int tmp = next[prev];
-            if (tmp == mp) {
-                next[prev] = freeIndex;
-                break;
-            }
-            prev = tmp;
-        }
-
-        return mp;
+        this(0, 0);
     }
 
-    private void hash_rehash(Object newKey) {
-        // NOTE: it's important to avoid GC of weak stuff here, so convert it
-        // to plain before rehashing
-        boolean oldWeakKeys = weakKeys, oldWeakValues = weakValues;
-        updateWeakSettings(false, false);
-
-        Object[] oldKeys = keys;
-        Object[] oldValues = values;
-        int hashLength = oldKeys.length;
-
-        int usedTotal = 0 + 1; // include the newKey
-
-        for (int i = hashLength - 1; i >= 0; --i) {
-            Object key = keys[i];
-            if (key != null && values[i] != null) {
-                usedTotal++;
-            }
+    /**
+     * Creates a table with room for the keys 1..arraySize and hashSize other
+     * keys, so that filling it in does not have to rehash. All keys share
+     * the same hash part; the split is only there to mirror OP_NEWTABLE.
+     */
+    public LuaTable(int arraySize, int hashSize) {
+        int n = Math.min(arraySize + hashSize, MAX_PRESIZE);
+        if (OPEN_ADDRESSING) {
+            storage = new OpenStorage(OpenStorage.capacityFor(n));
+        } else {
+            storage = new ChainedStorage(n <= 1 ? 1 : 2 * TableStorage.nearestPowerOfTwo(n - 1));
         }
-
-        int hashCapacity = 2 * nearestPowerOfTwo(usedTotal);
-        if (hashCapacity < 2) {
-            hashCapacity = 2;
-        }
-
-        keys = new Object[hashCapacity];
-        values = new Object[hashCapacity];
-        next = new int[hashCapacity];
-
-        freeIndex = hashCapacity;
-
-        for (int i = hashLength - 1; i >= 0; --i) {
-            Object key = oldKeys[i];
-            if (key != null) {
-                Object value = oldValues[i];
-                if (value != null) {
-                    rawset(key, value);
-                }
-            }
-        }
-        updateWeakSettings(oldWeakKeys, oldWeakValues);
     }
 
     private LuaTable metatable;
@@ -300,24 +71,36 @@ public final class LuaTable {
     }
 
     private void rawsetHash(Object key, Object value) {
+        storage.sweep();
         int index = getHashIndex(key);
         if (index < 0) {
-            int mp = getMP(key);
-            index = hash_primitiveNewKey(key, mp);
-            if (index < 0) {
-                rawset(key, value);
+            if (value == null) {
                 return;
             }
+            index = storage.insert(key);
+            // the insert may have moved other keys
+            keyIndexCacheKey = null;
+            keyIndexCacheValue = -1;
         }
-        __setValue(index, value);
+        storage.setValue(index, value);
     }
 
     public Object rawget(int index) {
-        return rawgetHash((double) index);
+        return rawgetHash(BaseLib.toDouble(index));
     }
 
     public void rawset(int index, Object value) {
-        rawsetHash((double) index, value);
+        rawsetHash(BaseLib.toDouble(index), value);
+    }
+
+    /**
+     * Stores src[srcPos..srcPos+count-1] at the keys first..first+count-1,
+     * like a sequence of rawset(int, Object) calls.
+     */
+    public void rawsetList(int first, Object[] src, int srcPos, int count) {
+        for (int i = 0; i < count; i++) {
+            rawsetHash(BaseLib.toDouble(first + i), src[srcPos + i]);
+        }
     }
 
     public final Object rawget(Object key) {
@@ -331,56 +114,89 @@ public final class LuaTable {
     private Object rawgetHash(Object key) {
         int index = getHashIndex(key);
         if (index >= 0) {
-            return __getValue(index);
+            return storage.valueAt(index);
         }
         return null;
     }
 
     private int getHashIndex(Object key) {
-        if (key == keyIndexCacheKey) {
+        Object cached = keyIndexCacheKey;
+        if (key == cached
+                || (cached instanceof TableStorage.WeakSlot && ((TableStorage.WeakSlot) cached).get() == key)) {
             return keyIndexCacheValue;
         }
-        int mp = getMP(key);
-        int index = hash_primitiveFindKey(key, mp);
-        if (!weakKeys) {
+        int index = storage.find(key);
+        if (index >= 0) {
+            cacheIndex(key, index);
+        } else if (!storage.weakKeys || !TableStorage.canBeWeakObject(key)) {
             keyIndexCacheKey = key;
-            keyIndexCacheValue = index;
+            keyIndexCacheValue = -1;
         }
         return index;
     }
 
+    /*
+     * A weak table caches the key as stored, i.e. a weak reference, so that
+     * the cache does not keep the key alive.
+     */
+    private void cacheIndex(Object key, int index) {
+        keyIndexCacheKey = storage.weakKeys ? storage.rawKeyAt(index) : key;
+        keyIndexCacheValue = index;
+    }
+
     public static void checkKey(Object key) {
         BaseLib.luaAssert(key != null, "table index is nil");
     }
 
-    private Object nextHash(Object key) {
+    /**
+     * Finds the entry that follows key in traversal order, as next(key)
+     * does, and returns its index for keyAt and valueAt, or -1 after the
+     * last entry. The index of the entry is remembered, so that handing its
+     * key back in does not need a lookup and a whole traversal is a single
+     * pass over the storage.
+     */
+    public int nextIndex(Object key) {
         int index = 0;
         if (key != null) {
             index = 1 + getHashIndex(key);
             if (index <= 0) {
                 BaseLib.fail("invalid key to 'next'");
-                return null;
+                return -1;
             }
         }
 
-        while (true) {
-            if (index == keys.length) {
-                return null;
-            }
-            Object next = __getKey(index);
-            if (next != null && __getValue(index) != null) {
-                return next;
+        int slots = storage.slotCount();
+        for (; index < slots; index++) {
+            Object next = storage.keyAt(index);
+            if (next != null && storage.valueAt(index) != null) {
+                cacheIndex(next, index);
+                return index;
             }
-            index++;
         }
+        return -1;
+    }
+
+    /**
+     * @return the key of an index returned by nextIndex
+     */
+    public Object keyAt(int index) {
+        return storage.keyAt(index);
+    }
+
+    /**
+     * @return the value of an index returned by nextIndex
+     */
+    public Object valueAt(int index) {
+        return storage.valueAt(index);
     }
 
     public final Object next(Object key) {
-        return nextHash(key);
+        int index = nextIndex(key);
+        return index < 0 ? null : storage.keyAt(index);
     }
 
     public final int len() {
-        int high = 2 * keys.length;
+        int high = 2 * storage.slotCount();
         int low = 0;
         while (low < high) {
             int middle = (high + low + 1) >> 1;
@@ -397,47 +213,37 @@ public final class LuaTable {
         return low;
     }
 
+    /*
+     * The storages pick slots with the low bits of the hash only, so the
+     * high bits are folded into them here.
+     */
     public static int luaHashcode(Object a) {
         if (a instanceof Double) {
-            Double ad = (Double) a;
-            long l = Double.doubleToLongBits(ad.doubleValue()) & 0x7fffffffffffffffL;
-            return (int) (l ^ (l >>> 32));
-        }
-        if (a instanceof String) {
-            return a.hashCode();
+            return doubleHashcode((Double) a);
         }
-        return System.identityHashCode(a);
+        int h = a instanceof String ? a.hashCode() : System.identityHashCode(a);
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * Small integral keys hash to themselves, so that array-like tables
+     * spread evenly, while the high bits of large ones are still folded in;
+     * the bits of other numbers are multiplied first, since their low bits
+     * are mostly zero. -0.0 and 0.0 must hash alike.
+     */
+    static int doubleHashcode(double d) {
+        int h = (int) d;
+        if (h != d) {
+            long l = Double.doubleToLongBits(d);
+            h = (int) (l ^ (l >>> 32)) * 0x9E3779B9;
+        }
+        return h ^ (h >>> 16);
     }
 
     private void updateWeakSettings(boolean k, boolean v) {
         keyIndexCacheKey = null;
         keyIndexCacheValue = -1;
-        if (k != weakKeys) {
-            fixWeakRefs(keys, k);
-            weakKeys = k;
-        }
-        if (v != weakValues) {
-            fixWeakRefs(values, v);
-            weakValues = v;
-        }
-    }
-
-    private void fixWeakRefs(Object[] entries, boolean weak) {
-        /*
-         * Assertion: if the entries are already weak,
-         * the parameter "weak" is false, and vice versa.
-         * Thus, don't try to fix it to weak if it's already weak.
-         */
-
-        for (int i = entries.length - 1; i >= 0; i--) {
-            Object o = entries[i];
-            if (weak) {
-                o = ref(o);
-            } else {
-                o = unref(o);
-            }
-            entries[i] = o;
-        }
+        storage.setWeak(k, v);
     }
 
     public LuaTable getMetatable() {
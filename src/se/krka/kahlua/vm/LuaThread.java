@@ -24,6 +24,7 @@
 package se.krka.kahlua.vm;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import se.krka.kahlua.stdlib.BaseLib;
 
 public class LuaThread {
@@ -33,6 +34,9 @@ public class LuaThread {
     public String stackTrace = "";
     public final ArrayList<UpValue> liveUpvalues = new ArrayList<>();
 
+    private static final Object[] NO_OBJECTS = {};
+    private static final LuaCallFrame[] NO_CALL_FRAMES = {};
+
     public static final int MAX_STACK_SIZE = 1000;
     public static final int INITIAL_STACK_SIZE = 10;
 
@@ -45,14 +49,48 @@ public class LuaThread {
     public int callFrameTop;
     public LuaState state;
     public int expectedResults;
+    // set for coroutine.wrap: results are passed on without a status, and errors propagate
+    public boolean wrapped;
     boolean needsContextRestore;
 
     public LuaThread(LuaState state, LuaTable environment) {
         this.state = state;
         this.environment = environment;
 
-        objectStack = new Object[INITIAL_STACK_SIZE];
-        callFrameStack = new LuaCallFrame[INITIAL_CALL_FRAME_STACK_SIZE];
+        int pooled = state.pooledStacks;
+        if (pooled > 0) {
+            state.pooledStacks = --pooled;
+            objectStack = state.pooledObjectStacks[pooled];
+            callFrameStack = state.pooledCallFrameStacks[pooled];
+            state.pooledObjectStacks[pooled] = null;
+            state.pooledCallFrameStacks[pooled] = null;
+            for (LuaCallFrame callFrame : callFrameStack) {
+                if (callFrame == null) {
+                    break;
+                }
+                callFrame.thread = this;
+            }
+        } else {
+            objectStack = new Object[INITIAL_STACK_SIZE];
+            callFrameStack = new LuaCallFrame[INITIAL_CALL_FRAME_STACK_SIZE];
+        }
+    }
+
+    /**
+     * Hands the stacks of a coroutine that has returned to its LuaState,
+     * which gives them to the next LuaThread it creates. A dead coroutine
+     * can never be resumed, so it has no use for them.
+     */
+    void recycleStacks() {
+        if (!isDead() || !liveUpvalues.isEmpty() || state.pooledStacks == LuaState.MAX_POOLED_STACKS) {
+            return;
+        }
+        setTop(0);
+        state.pooledObjectStacks[state.pooledStacks] = objectStack;
+        state.pooledCallFrameStacks[state.pooledStacks] = callFrameStack;
+        state.pooledStacks++;
+        objectStack = NO_OBJECTS;
+        callFrameStack = NO_CALL_FRAMES;
     }
 
     public final LuaCallFrame pushNewCallFrame(LuaClosure closure,
@@ -62,8 +100,16 @@ public class LuaThread {
             int nArguments,
             boolean fromLua,
             boolean insideCoroutine) {
-        setCallFrameStackTop(callFrameTop + 1);
-        LuaCallFrame callFrame = currentCallFrame();
+        int index = callFrameTop;
+        if (index >= callFrameStack.length) {
+            ensureCallFrameStackSize(index + 1);
+        }
+        LuaCallFrame callFrame = callFrameStack[index];
+        if (callFrame == null) {
+            callFrame = new LuaCallFrame(this);
+            callFrameStack[index] = callFrame;
+        }
+        callFrameTop = index + 1;
 
         callFrame.localBase = localBase;
         callFrame.returnBase = returnBase;
@@ -72,6 +118,8 @@ public class LuaThread {
         callFrame.insideCoroutine = insideCoroutine;
         callFrame.closure = closure;
         callFrame.javaFunction = javaFunction;
+        // a frame left by an error in the middle of an OP_CONCAT must not resume it
+        callFrame.concatStatus = -2;
         return callFrame;
     }
 
@@ -79,7 +127,9 @@ public class LuaThread {
         if (isDead()) {
             throw new RuntimeException("Stack underflow");
         }
-        setCallFrameStackTop(callFrameTop - 1);
+        LuaCallFrame callFrame = callFrameStack[--callFrameTop];
+        callFrame.closure = null;
+        callFrame.javaFunction = null;
     }
 
     private void ensureCallFrameStackSize(int index) {
@@ -87,14 +137,12 @@ public class LuaThread {
             throw new RuntimeException("Stack overflow");
         }
         int oldSize = callFrameStack.length;
-        int newSize = oldSize;
+        int newSize = Math.max(oldSize, INITIAL_CALL_FRAME_STACK_SIZE);
         while (newSize <= index) {
             newSize = 2 * newSize;
         }
         if (newSize > oldSize) {
-            LuaCallFrame[] newStack = new LuaCallFrame[newSize];
-            System.arraycopy(callFrameStack, 0, newStack, 0, oldSize);
-            callFrameStack = newStack;
+            callFrameStack = Arrays.copyOf(callFrameStack, Math.min(newSize, MAX_CALL_FRAME_STACK_SIZE + 1));
         }
     }
 
@@ -122,22 +170,23 @@ public class LuaThread {
             throw new RuntimeException("Stack overflow");
         }
         int oldSize = objectStack.length;
-        int newSize = oldSize;
+        int newSize = Math.max(oldSize, INITIAL_STACK_SIZE);
         while (newSize <= index) {
             newSize = 2 * newSize;
         }
         if (newSize > oldSize) {
-            Object[] newStack = new Object[newSize];
-            System.arraycopy(objectStack, 0, newStack, 0, oldSize);
-            objectStack = newStack;
+            // never grown past the limit, so that setTop only has to check the length
+            objectStack = Arrays.copyOf(objectStack, Math.min(newSize, MAX_STACK_SIZE + 1));
         }
     }
 
     public final void setTop(int newTop) {
         if (top < newTop) {
-            ensureStacksize(newTop);
-        } else {
-            stackClear(newTop, top - 1);
+            if (newTop >= objectStack.length) {
+                ensureStacksize(newTop);
+            }
+        } else if (newTop < top) {
+            Arrays.fill(objectStack, newTop, top, null);
         }
         top = newTop;
     }
@@ -149,8 +198,8 @@ public class LuaThread {
     }
 
     public final void stackClear(int startIndex, int endIndex) {
-        for (; startIndex <= endIndex; startIndex++) {
-            objectStack[startIndex] = null;
+        if (startIndex <= endIndex) {
+            Arrays.fill(objectStack, startIndex, endIndex + 1, null);
         }
     }
 
@@ -158,37 +207,48 @@ public class LuaThread {
      * End of stack code
      */
     public final void closeUpvalues(int closeIndex) {
-		// close all open upvalues
-
-        int loopIndex = liveUpvalues.size();
-        while (--loopIndex >= 0) {
-            UpValue uv = liveUpvalues.get(loopIndex);
+        // close all open upvalues at or above closeIndex, which are the last ones in the list
+        int size = liveUpvalues.size();
+        int loopIndex = size;
+        while (loopIndex > 0) {
+            UpValue uv = liveUpvalues.get(loopIndex - 1);
             if (uv.index < closeIndex) {
-                return;
+                break;
             }
             uv.value = objectStack[uv.index];
             uv.thread = null;
-            liveUpvalues.remove(loopIndex);
+            loopIndex--;
+        }
+        if (loopIndex < size) {
+            liveUpvalues.subList(loopIndex, size).clear();
         }
     }
 
     public final UpValue findUpvalue(int scanIndex) {
-        // TODO: use binary search instead?
-        int loopIndex = liveUpvalues.size();
-        while (--loopIndex >= 0) {
-            UpValue uv = (UpValue) liveUpvalues.get(loopIndex);
-            if (uv.index == scanIndex) {
-                return uv;
-            }
-            if (uv.index < scanIndex) {
-                break;
+        // liveUpvalues is sorted by stack index, and new upvalues are usually for the top-most locals
+        int size = liveUpvalues.size();
+        int low = 0;
+        if (size > 0 && liveUpvalues.get(size - 1).index < scanIndex) {
+            low = size;
+        } else {
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                UpValue uv = liveUpvalues.get(mid);
+                if (uv.index < scanIndex) {
+                    low = mid + 1;
+                } else if (uv.index > scanIndex) {
+                    high = mid - 1;
+                } else {
+                    return uv;
+                }
             }
         }
         UpValue uv = new UpValue();
         uv.thread = this;
         uv.index = scanIndex;
 
-        liveUpvalues.add(loopIndex + 1, uv);
+        liveUpvalues.add(low, uv);
         return uv;
     }
 
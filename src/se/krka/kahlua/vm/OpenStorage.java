@@ -0,0 +1,212 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+ Derived from code that was
+ Copyright (c) 2007-2008 Kristofer Karlsson <kristofer.karlsson@gmail.com>
+ Portions of this code Copyright (c) 2007 Andre Bogus <andre@m3n.de>
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.vm;
+
+/**
+ * Open addressing with linear probing. Keys and values are interleaved in
+ * one array (key of slot i at 2i, its value at 2i + 1) and the hash of every
+ * key is kept next to it, so a probe rarely has to look at a key that
+ * doesn't match. Number keys are compared as doubles without calling
+ * equals().
+ *
+ * Nothing is ever removed from the probe sequences: a key set to nil, or
+ * a collected weak key, stays in place until the next rebuild drops it.
+ */
+final class OpenStorage extends TableStorage {
+
+    private Object[] entries;
+    private int[] hashes;
+    private int mask;
+    // slots with a key in them, counting cleared and nil valued ones
+    private int used;
+
+    OpenStorage(int capacity) {
+        entries = new Object[2 * capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return the capacity that fits n entries without growing
+     */
+    static int capacityFor(int n) {
+        int capacity = 2;
+        while (capacity * 3 < (n + 1) * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    @Override
+    int find(Object key) {
+        Object[] entries = this.entries;
+        int[] hashes = this.hashes;
+        int mask = this.mask;
+        if (key instanceof Double) {
+            double d = (Double) key;
+            int h = LuaTable.doubleHashcode(d);
+            for (int i = h & mask;; i = (i + 1) & mask) {
+                Object k = entries[2 * i];
+                if (k == null) {
+                    return -1;
+                }
+                if (hashes[i] == h && k instanceof Double && (Double) k == d) {
+                    return i;
+                }
+            }
+        }
+        int h = LuaTable.luaHashcode(key);
+        boolean isString = key instanceof String;
+        for (int i = h & mask;; i = (i + 1) & mask) {
+            Object k = entries[2 * i];
+            if (k == null) {
+                return -1;
+            }
+            if (hashes[i] == h) {
+                if (weakKeys) {
+                    k = unref(k);
+                }
+                if (k == key || (isString && key.equals(k))) {
+                    return i;
+                }
+            }
+        }
+    }
+
+    @Override
+    int insert(Object key) {
+        sweep();
+        if ((used + 1) * 4 > (mask + 1) * 3) {
+            rebuild(false);
+        }
+        int h = LuaTable.luaHashcode(key);
+        int i = h & mask;
+        while (entries[2 * i] != null) {
+            i = (i + 1) & mask;
+        }
+        entries[2 * i] = weakKeys ? ref(key, h) : key;
+        hashes[i] = h;
+        used++;
+        return i;
+    }
+
+    /*
+     * Rehashes the live entries into new arrays with room for more. The
+     * stored references are moved as they are, unless convert is set, in
+     * which case they are rewrapped to match weakKeys and weakValues.
+     */
+    private void rebuild(boolean convert) {
+        Object[] oldEntries = entries;
+        int[] oldHashes = hashes;
+
+        int live = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            if (isLive(oldEntries[2 * i], oldEntries[2 * i + 1])) {
+                live++;
+            }
+        }
+
+        // leave room for live / 2 more keys, so that steady churn rebuilds
+        // only every so often
+        int capacity = capacityFor(live + live / 2 + 1);
+        entries = new Object[2 * capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        used = 0;
+        for (int i = 0; i < oldHashes.length; i++) {
+            Object key = oldEntries[2 * i];
+            Object value = oldEntries[2 * i + 1];
+            if (!isLive(key, value)) {
+                continue;
+            }
+            int h = oldHashes[i];
+            if (convert) {
+                key = unref(key);
+                value = unref(value);
+                key = weakKeys ? ref(key, h) : key;
+                value = weakValues ? ref(value, h) : value;
+            }
+            int j = h & mask;
+            while (entries[2 * j] != null) {
+                j = (j + 1) & mask;
+            }
+            entries[2 * j] = key;
+            entries[2 * j + 1] = value;
+            hashes[j] = h;
+            used++;
+        }
+    }
+
+    @Override
+    Object keyAt(int slot) {
+        return unref(entries[2 * slot]);
+    }
+
+    @Override
+    Object rawKeyAt(int slot) {
+        return entries[2 * slot];
+    }
+
+    @Override
+    Object valueAt(int slot) {
+        return unref(entries[2 * slot + 1]);
+    }
+
+    @Override
+    void setValue(int slot, Object value) {
+        if (weakValues) {
+            Object old = entries[2 * slot + 1];
+            if (value != null && old instanceof WeakSlot && ((WeakSlot) old).get() == value) {
+                return;
+            }
+            value = ref(value, hashes[slot]);
+        }
+        entries[2 * slot + 1] = value;
+    }
+
+    @Override
+    int slotCount() {
+        return hashes.length;
+    }
+
+    @Override
+    void setWeak(boolean k, boolean v) {
+        if (k != weakKeys || v != weakValues) {
+            weakKeys = k;
+            weakValues = v;
+            rebuild(true);
+        }
+    }
+
+    @Override
+    void clear(WeakSlot cleared) {
+        for (int i = cleared.hash & mask; entries[2 * i] != null; i = (i + 1) & mask) {
+            if (entries[2 * i] == cleared || entries[2 * i + 1] == cleared) {
+                entries[2 * i + 1] = null;
+                return;
+            }
+        }
+    }
+}
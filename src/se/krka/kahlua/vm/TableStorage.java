@@ -0,0 +1,187 @@
+/*
+ Copyright (c) 2014-2015 Colby Skeggs
+ Derived from code that was
+ Copyright (c) 2007-2008 Kristofer Karlsson <kristofer.karlsson@gmail.com>
+ Portions of this code Copyright (c) 2007 Andre Bogus <andre@m3n.de>
+
+ Permission is hereby granted, free of charge, to any person obtaining a copy
+ of this software and associated documentation files (the "Software"), to deal
+ in the Software without restriction, including without limitation the rights
+ to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ copies of the Software, and to permit persons to whom the Software is
+ furnished to do so, subject to the following conditions:
+
+ The above copyright notice and this permission notice shall be included in
+ all copies or substantial portions of the Software.
+
+ THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ THE SOFTWARE.
+ */
+package se.krka.kahlua.vm;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * The hash part of a {@link LuaTable}. Entries live in numbered slots; a
+ * slot number stays valid until the next {@link #insert(Object)}, which may
+ * move entries around or rebuild the storage.
+ *
+ * Weak keys and values are stored as {@link WeakSlot}s, which remember the
+ * hash of their entry's key. That lets a cleared reference keep its place in
+ * the hash structure, lets the storage grow without touching the referents,
+ * and lets {@link #sweep()} find the entry of a reference that the garbage
+ * collector put on the queue. Keys whose value is nil (set so, or swept)
+ * keep their slot until the storage is rebuilt, which keeps next() working
+ * while a table is being cleared during traversal.
+ */
+abstract class TableStorage {
+
+    // how many cleared references one sweep() handles at most
+    private static final int SWEEP_LIMIT = 16;
+
+    boolean weakKeys, weakValues;
+
+    private ReferenceQueue<Object> queue;
+
+    static final class WeakSlot extends WeakReference<Object> {
+
+        final int hash;
+
+        WeakSlot(Object referent, int hash, ReferenceQueue<Object> queue) {
+            super(referent, queue);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * @return the slot holding key, or -1
+     */
+    abstract int find(Object key);
+
+    /**
+     * Adds a key that is not in the storage yet.
+     *
+     * @return the slot for the new key, with a nil value
+     */
+    abstract int insert(Object key);
+
+    /**
+     * @return the key in the slot, or null if the slot is free or its weak
+     * key was collected
+     */
+    abstract Object keyAt(int slot);
+
+    /**
+     * @return the key in the slot as stored, possibly a WeakSlot
+     */
+    abstract Object rawKeyAt(int slot);
+
+    abstract Object valueAt(int slot);
+
+    abstract void setValue(int slot, Object value);
+
+    /**
+     * Slots are numbered from 0 to slotCount() - 1.
+     */
+    abstract int slotCount();
+
+    /**
+     * Switches to the given weak modes, wrapping or unwrapping the entries
+     * that are already stored.
+     */
+    abstract void setWeak(boolean weakKeys, boolean weakValues);
+
+    /**
+     * Sets the value of the entry that the cleared reference belongs to, if
+     * it is still stored, to nil.
+     */
+    abstract void clear(WeakSlot cleared);
+
+    /**
+     * Clears the entries of a bounded number of collected weak keys and
+     * values, so that their values can be collected too and rebuilds can
+     * drop them. Cheap when nothing was collected.
+     */
+    final void sweep() {
+        if (queue == null) {
+            return;
+        }
+        for (int i = 0; i < SWEEP_LIMIT; i++) {
+            WeakSlot cleared = (WeakSlot) queue.poll();
+            if (cleared == null) {
+                return;
+            }
+            clear(cleared);
+        }
+    }
+
+    final Object ref(Object o, int hash) {
+        if (!canBeWeakObject(o)) {
+            return o;
+        }
+        if (queue == null) {
+            queue = new ReferenceQueue<Object>();
+        }
+        return new WeakSlot(o, hash, queue);
+    }
+
+    static Object unref(Object o) {
+        if (o instanceof WeakSlot) {
+            return ((WeakSlot) o).get();
+        }
+        return o;
+    }
+
+    /**
+     * @return the hash of a key as stored
+     */
+    static int hashOf(Object rawKey) {
+        if (rawKey instanceof WeakSlot) {
+            return ((WeakSlot) rawKey).hash;
+        }
+        return LuaTable.luaHashcode(rawKey);
+    }
+
+    static boolean canBeWeakObject(Object o) {
+        return !(o == null || o instanceof String
+                || o instanceof Double || o instanceof Boolean);
+    }
+
+    /**
+     * @return true if the stored key is live and its value is not nil
+     */
+    static boolean isLive(Object rawKey, Object rawValue) {
+        return rawKey != null && rawValue != null
+                && unref(rawKey) != null && unref(rawValue) != null;
+    }
+
+    private static final int[] log_2 = new int[]{
+        0, 1, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5, 5,
+        6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6, 6,
+        7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7, 7,
+        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
+        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
+        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8,
+        8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8, 8
+    };
+
+    private static int luaO_log2(int x) {
+        int l = -1;
+        while (x >= 256) {
+            l += 8;
+            x >>= 8;
+        }
+        return l + log_2[x];
+    }
+
+    static int nearestPowerOfTwo(int x) {
+        return 1 << luaO_log2(x);
+    }
+}